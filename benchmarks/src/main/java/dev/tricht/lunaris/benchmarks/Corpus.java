@@ -0,0 +1,168 @@
+package dev.tricht.lunaris.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.tricht.lunaris.com.pathofexile.response.StatsResponse;
+import dev.tricht.lunaris.item.Item;
+import dev.tricht.lunaris.item.ItemParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Benchmark input: the item texts from ItemParserTest, a trimmed trade stats catalog and generated
+ * poe.ninja files with the variant counts of a real league.
+ */
+class Corpus {
+
+    // The number of item texts, for @OperationsPerInvocation
+    static final int SIZE = 22;
+
+    private static final String SEPARATOR = "\n========\n";
+
+    private static final List<String> CURRENCY_TYPES = List.of("Currency", "Fragment");
+    private static final List<String> ITEM_TYPES = List.of(
+            "Watchstone", "Oil", "Incubator", "Scarab", "Fossil", "Resonator", "Essence", "DivinationCard",
+            "Prophecy", "SkillGem", "BaseType", "HelmetEnchant", "UniqueMap", "Map", "UniqueJewel",
+            "UniqueFlask", "UniqueWeapon", "UniqueArmour", "UniqueAccessory", "Beast"
+    );
+    private static final String[] INFLUENCES = {null, "Shaper", "Elder", "Crusader", "Hunter", "Redeemer", "Warlord"};
+
+    static String[] itemTexts() throws IOException {
+        String[] texts = read("/corpus/items.txt").split(SEPARATOR);
+        if (texts.length != SIZE) {
+            throw new IllegalStateException(String.format("Expected %d corpus items, found %d", SIZE, texts.length));
+        }
+        return texts;
+    }
+
+    static List<Item> items() throws IOException {
+        List<Item> items = new ArrayList<>();
+        for (String text : itemTexts()) {
+            items.add(new ItemParser(text).parse());
+        }
+        return items;
+    }
+
+    static StatsResponse stats() throws IOException {
+        try (InputStream in = Corpus.class.getResourceAsStream("/corpus/stats.json")) {
+            return new ObjectMapper().readValue(in, StatsResponse.class);
+        }
+    }
+
+    /**
+     * Writes poe.ninja files for every category into a temporary directory. The items of the corpus
+     * are in there, surrounded by enough other names and variants to make lookups realistic.
+     */
+    static File ninjaDirectory() throws IOException {
+        File directory = Files.createTempDirectory("lunaris-ninja").toFile();
+        directory.deleteOnExit();
+        Random random = new Random(42);
+        Map<String, List<Map<String, Object>>> lines = new HashMap<>();
+
+        List<Map<String, Object>> currency = new ArrayList<>();
+        for (String name : List.of("Chaos Orb", "Jeweller's Orb", "Exalted Orb", "Orb of Fusing", "Divine Orb")) {
+            currency.add(line("currencyTypeName", name, "chaosEquivalent", random.nextDouble() * 150));
+        }
+        for (int i = 0; i < 100; i++) {
+            currency.add(line("currencyTypeName", "Currency " + i, "chaosEquivalent", random.nextDouble() * 10));
+        }
+        lines.put("Currency", currency);
+
+        List<Map<String, Object>> gems = new ArrayList<>();
+        List<String> gemNames = new ArrayList<>(List.of("Swift Affliction Support"));
+        for (int i = 0; i < 300; i++) {
+            gemNames.add("Skill Gem " + i);
+        }
+        for (String name : gemNames) {
+            for (int level : new int[]{1, 3, 4, 19, 20, 21}) {
+                for (int quality : new int[]{0, 20, 23}) {
+                    for (boolean corrupted : new boolean[]{false, true}) {
+                        Map<String, Object> gem = line("name", name, "chaosValue", random.nextDouble() * 100);
+                        gem.put("gemLevel", level);
+                        gem.put("gemQuality", quality);
+                        gem.put("corrupted", corrupted);
+                        gems.add(gem);
+                    }
+                }
+            }
+        }
+        lines.put("SkillGem", gems);
+
+        List<Map<String, Object>> bases = new ArrayList<>();
+        List<String> baseNames = new ArrayList<>(List.of("Jade Amulet", "Two-Toned Boots", "Crimson Jewel",
+                "Two-Stone Ring", "Quicksilver Flask", "Leather Belt", "Full Ringmail"));
+        for (int i = 0; i < 400; i++) {
+            baseNames.add("Base Type " + i);
+        }
+        for (String name : baseNames) {
+            for (int itemLevel = 82; itemLevel <= 86; itemLevel++) {
+                for (String influence : INFLUENCES) {
+                    Map<String, Object> base = line("name", name, "chaosValue", random.nextDouble() * 300);
+                    base.put("levelRequired", itemLevel);
+                    base.put("variant", influence);
+                    bases.add(base);
+                }
+            }
+        }
+        lines.put("BaseType", bases);
+
+        List<Map<String, Object>> maps = new ArrayList<>();
+        for (String name : List.of("Overgrown Shrine Map", "Summit Map", "Colonnade Map", "Tropical Island Map")) {
+            for (int tier = 1; tier <= 16; tier++) {
+                Map<String, Object> map = line("name", name, "chaosValue", random.nextDouble() * 5);
+                map.put("mapTier", tier);
+                maps.add(map);
+            }
+        }
+        lines.put("Map", maps);
+
+        List<Map<String, Object>> armours = new ArrayList<>();
+        for (String name : List.of("Goldrim", "Hyrri's Ire")) {
+            for (int links : new int[]{0, 5, 6}) {
+                Map<String, Object> armour = line("name", name, "chaosValue", random.nextDouble() * 50);
+                armour.put("links", links);
+                armours.add(armour);
+            }
+        }
+        lines.put("UniqueArmour", armours);
+        lines.put("UniqueWeapon", List.of(line("name", "Innsbury Edge", "chaosValue", 1.0)));
+        lines.put("UniqueFlask", List.of(line("name", "Witchfire Brew", "chaosValue", 1.0)));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<String> types = new ArrayList<>(CURRENCY_TYPES);
+        types.addAll(ITEM_TYPES);
+        for (String type : types) {
+            Map<String, Object> root = new HashMap<>();
+            List<Map<String, Object>> typeLines = lines.getOrDefault(type, List.of());
+            for (Map<String, Object> typeLine : typeLines) {
+                Map<String, Object> sparkline = Map.of("data", new double[]{0, 1.5, 2.5, 3, 2, 1, 0.5});
+                typeLine.put("sparkline", sparkline);
+                typeLine.put("lowConfidenceSparkline", sparkline);
+                typeLine.put("icon", "https://web.poecdn.com/image/Art/2DItems/" + typeLine.get(typeLine.containsKey("name") ? "name" : "currencyTypeName") + ".png");
+            }
+            root.put("lines", typeLines);
+            File file = new File(directory, type + ".json");
+            file.deleteOnExit();
+            objectMapper.writeValue(file, root);
+            new File(directory, type + ".bin").deleteOnExit();
+        }
+        return directory;
+    }
+
+    private static Map<String, Object> line(String nameField, String name, String priceField, double price) {
+        Map<String, Object> line = new HashMap<>();
+        line.put(nameField, name);
+        line.put(priceField, price);
+        return line;
+    }
+
+    private static String read(String resource) throws IOException {
+        try (InputStream in = Corpus.class.getResourceAsStream(resource)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
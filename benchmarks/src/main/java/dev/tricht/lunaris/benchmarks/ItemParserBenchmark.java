@@ -0,0 +1,32 @@
+package dev.tricht.lunaris.benchmarks;
+
+import dev.tricht.lunaris.item.ItemParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemParserBenchmark {
+
+    private String[] texts;
+
+    @Setup
+    public void setUp() throws IOException {
+        texts = Corpus.itemTexts();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Corpus.SIZE)
+    public void parseCorpus(Blackhole blackhole) {
+        for (String text : texts) {
+            blackhole.consume(new ItemParser(text).parse());
+        }
+    }
+}
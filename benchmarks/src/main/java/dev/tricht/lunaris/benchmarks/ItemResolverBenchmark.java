@@ -0,0 +1,36 @@
+package dev.tricht.lunaris.benchmarks;
+
+import dev.tricht.lunaris.item.Item;
+import dev.tricht.lunaris.ninja.poe.ItemResolver;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemResolverBenchmark {
+
+    private ItemResolver itemResolver;
+    private List<Item> items;
+
+    @Setup
+    public void setUp() throws IOException {
+        itemResolver = new ItemResolver(Corpus.ninjaDirectory());
+        items = Corpus.items();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Corpus.SIZE)
+    public void getItemForCorpus(Blackhole blackhole) {
+        for (Item item : items) {
+            blackhole.consume(itemResolver.getItem(item));
+        }
+    }
+}
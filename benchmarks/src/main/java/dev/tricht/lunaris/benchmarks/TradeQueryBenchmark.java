@@ -0,0 +1,40 @@
+package dev.tricht.lunaris.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.tricht.lunaris.com.pathofexile.PathOfExileAPI;
+import dev.tricht.lunaris.item.Item;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TradeQueryBenchmark {
+
+    private PathOfExileAPI pathOfExileAPI;
+    private ObjectMapper objectMapper;
+    private List<Item> items;
+
+    @Setup
+    public void setUp() throws IOException {
+        pathOfExileAPI = new PathOfExileAPI(Corpus.stats());
+        objectMapper = new ObjectMapper();
+        items = Corpus.items();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Corpus.SIZE)
+    public void createTradeRequestForCorpus(Blackhole blackhole) throws JsonProcessingException {
+        for (Item item : items) {
+            blackhole.consume(objectMapper.writeValueAsString(pathOfExileAPI.createTradeRequest(item)));
+        }
+    }
+}
@@ -2,6 +2,7 @@ package dev.tricht.lunaris;
 
 import dev.tricht.lunaris.com.pathofexile.PathOfExileAPI;
 import dev.tricht.lunaris.data.DataDirectory;
+import dev.tricht.lunaris.elements.IconCache;
 import dev.tricht.lunaris.item.ItemGrabber;
 import dev.tricht.lunaris.item.types.CurrencyItem;
 import dev.tricht.lunaris.item.types.MapItem;
@@ -20,8 +21,12 @@ import java.awt.event.ItemEvent;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 @Slf4j
 public class Lunaris {
@@ -29,9 +34,11 @@ public class Lunaris {
     private Robot robot;
     private PathOfExileAPI pathOfExileAPI;
     private ItemGrabber itemGrabber;
-    private ItemResolver itemResolver;
-    private String selectedLeagueName;
+    // Also read by the league menu on the event dispatch thread
+    private volatile ItemResolver itemResolver;
+    private volatile String selectedLeagueName;
     private ArrayList<CheckboxMenuItem> leagueMenuItems;
+    private Menu leagueMenu;
 
     public static void main(String[] args) {
         Logger logger = Logger.getLogger(GlobalScreen.class.getPackage().getName());
@@ -46,20 +53,51 @@ public class Lunaris {
         try {
             pathOfExileAPI = new PathOfExileAPI();
         } catch (Exception e) {
-            JOptionPane.showMessageDialog(null, "Couldn't talk with pathofexile.com, perhaps down for maintenance?",
-                    "Lunaris ", JOptionPane.ERROR_MESSAGE);
-            log.error("Failed talking to pathofexile.com", e);
-            System.exit(1);
+            exitWithError("Failed talking to pathofexile.com", e);
+        }
+        CompletableFuture<List<String>> liveLeagues = pathOfExileAPI.getTradeLeaguesAsync();
+        List<String> cachedLeagues = pathOfExileAPI.getCachedTradeLeagues();
+        createSysTray(cachedLeagues);
+        if (selectedLeagueName == null) {
+            // Nothing cached yet, or no tray menu to select it, the prices need a league
+            List<String> leagueNames = cachedLeagues;
+            if (leagueNames.isEmpty()) {
+                try {
+                    leagueNames = liveLeagues.join();
+                } catch (CompletionException e) {
+                    exitWithError("Failed getting leagues from pathofexile.com", e);
+                }
+            }
+            if (leagueMenu != null) {
+                mergeLeagues(leagueNames);
+            } else if (!leagueNames.isEmpty()) {
+                selectLeague(chooseLeague(leagueNames));
+            }
+        }
+        if (selectedLeagueName == null) {
+            exitWithError("No league to get the prices of", null);
         }
-        createSysTray();
         try {
             robot = new Robot();
-            itemResolver = new ItemResolver(selectedLeagueName);
+            String leagueName = selectedLeagueName;
+            itemResolver = new ItemResolver(leagueName);
+            // The league menu may have switched leagues while there was no resolver to tell
+            if (!leagueName.equals(selectedLeagueName)) {
+                itemResolver.refreshAsync(selectedLeagueName);
+            }
+            pathOfExileAPI.setCurrencyRates(itemResolver::getCurrencyRates);
+            itemResolver.setOnWarmed(IconCache::prefetch);
             itemGrabber = new ItemGrabber(robot, itemResolver);
         } catch (IOException | AWTException e) {
             log.error("Failed to initialize robot", e);
             return;
         }
+        // Only now, so the menu never switches leagues before the prices exist
+        liveLeagues.thenAcceptAsync(this::mergeLeagues, EventQueue::invokeLater)
+                .exceptionally(e -> {
+                    log.error("Failed getting leagues from pathofexile.com, using the cached leagues", e);
+                    return null;
+                });
         startListeners();
         // For some reason the JavaFX thread will completely stop after closing
         // the first tooltip. Setting this will prevent that from happening.
@@ -67,6 +105,13 @@ public class Lunaris {
         log.debug("Ready!");
     }
 
+    private static void exitWithError(String reason, Throwable e) {
+        JOptionPane.showMessageDialog(null, "Couldn't talk with pathofexile.com, perhaps down for maintenance?",
+                "Lunaris ", JOptionPane.ERROR_MESSAGE);
+        log.error(reason, e);
+        System.exit(1);
+    }
+
     private void startListeners() {
         try {
             GlobalScreen.registerNativeHook();
@@ -101,7 +146,7 @@ public class Lunaris {
         GlobalScreen.addNativeMouseListener(priceListener);
     }
 
-    private void createSysTray() {
+    private void createSysTray(List<String> leagueNames) {
         if (!SystemTray.isSupported()) {
             log.error("SystemTray is not supported");
             return;
@@ -130,20 +175,8 @@ public class Lunaris {
             PropertiesManager.writeProperty(PropertiesManager.POESESSID, poesessid);
         });
 
-        Menu leagueMenu = new Menu("League");
-        int count = 0;
-        for (String leagueName : pathOfExileAPI.getTradeLeagues()) {
-            CheckboxMenuItem leagueMenuItem = new CheckboxMenuItem(leagueName);
-            leagueMenuItems.add(leagueMenuItem);
-            leagueMenu.add(leagueMenuItem);
-            leagueMenuItem.addItemListener(this::changeLeague);
-            if ((PropertiesManager.containsKey(PropertiesManager.LEAGUE)
-                    && PropertiesManager.getProperty(PropertiesManager.LEAGUE).equals(leagueName)) || count == 2) {
-                leagueMenuItem.setState(true);
-                this.changeLeague(new ItemEvent(leagueMenuItem, 0, leagueName, ItemEvent.SELECTED));
-            }
-            count++;
-        }
+        leagueMenu = new Menu("League");
+        addLeagues(leagueNames);
 
         MenuItem exitItem = new MenuItem("Exit");
 
@@ -170,6 +203,52 @@ public class Lunaris {
         });
     }
 
+    /**
+     * @return the selected league when it is in the list, else the saved one, else the third league
+     */
+    private String chooseLeague(List<String> leagueNames) {
+        String savedLeagueName = PropertiesManager.getProperty(PropertiesManager.LEAGUE);
+        if (selectedLeagueName != null && leagueNames.contains(selectedLeagueName)) {
+            return selectedLeagueName;
+        } else if (savedLeagueName != null && leagueNames.contains(savedLeagueName)) {
+            return savedLeagueName;
+        } else if (!leagueNames.isEmpty()) {
+            return leagueNames.get(Math.min(2, leagueNames.size() - 1));
+        }
+        return null;
+    }
+
+    private void addLeagues(List<String> leagueNames) {
+        String selection = chooseLeague(leagueNames);
+        for (String leagueName : leagueNames) {
+            CheckboxMenuItem leagueMenuItem = new CheckboxMenuItem(leagueName);
+            leagueMenuItems.add(leagueMenuItem);
+            leagueMenu.add(leagueMenuItem);
+            leagueMenuItem.addItemListener(this::changeLeague);
+            if (leagueName.equals(selection)) {
+                leagueMenuItem.setState(true);
+                this.changeLeague(new ItemEvent(leagueMenuItem, 0, leagueName, ItemEvent.SELECTED));
+            }
+        }
+    }
+
+    /**
+     * Replaces the cached leagues in the menu by the live ones, keeping the selected league when it still
+     * exists.
+     */
+    private void mergeLeagues(List<String> leagueNames) {
+        if (leagueMenu == null || leagueNames.equals(getMenuLeagueNames())) {
+            return;
+        }
+        leagueMenu.removeAll();
+        leagueMenuItems.clear();
+        addLeagues(leagueNames);
+    }
+
+    private List<String> getMenuLeagueNames() {
+        return leagueMenuItems.stream().map(CheckboxMenuItem::getLabel).collect(Collectors.toList());
+    }
+
     private static Image getIcon() {
         URL imageURL = Lunaris.class.getClassLoader().getResource("icon.png");
 
@@ -186,18 +265,23 @@ public class Lunaris {
         if (selectedLeagueName != null && selectedLeagueName.equals(newLeagueName)) {
             return;
         }
-        selectedLeagueName = event.getItem().toString();
         for (CheckboxMenuItem checkboxMenuItem : leagueMenuItems) {
             checkboxMenuItem.setState(false);
             if (checkboxMenuItem.equals(event.getSource())) {
                 checkboxMenuItem.setState(true);
             }
         }
-        if (itemResolver != null) {
-            itemResolver.refresh(selectedLeagueName);
+        selectLeague(newLeagueName);
+    }
+
+    private void selectLeague(String leagueName) {
+        selectedLeagueName = leagueName;
+        ItemResolver resolver = itemResolver;
+        if (resolver != null) {
+            resolver.refreshAsync(leagueName);
         }
-        pathOfExileAPI.setLeague(selectedLeagueName);
-        PropertiesManager.writeProperty(PropertiesManager.LEAGUE, selectedLeagueName);
+        pathOfExileAPI.setLeague(leagueName);
+        PropertiesManager.writeProperty(PropertiesManager.LEAGUE, leagueName);
     }
 
 }
\ No newline at end of file
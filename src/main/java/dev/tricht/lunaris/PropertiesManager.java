@@ -13,6 +13,8 @@ public class PropertiesManager {
 
     public static final String LEAGUE = "LEAGUE";
     public static final String POESESSID = "POESESSID";
+    public static final String NINJA_MAX_REQUESTS = "NINJA_MAX_REQUESTS";
+    public static final String TRADE_CACHE_SECONDS = "TRADE_CACHE_SECONDS";
 
     public static void load() {
         file = new File(System.getenv("APPDATA") + "\\Lunaris\\lunaris.properties");
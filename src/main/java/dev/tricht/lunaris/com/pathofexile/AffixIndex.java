@@ -0,0 +1,204 @@
+package dev.tricht.lunaris.com.pathofexile;
+
+import dev.tricht.lunaris.com.pathofexile.response.Affix;
+import dev.tricht.lunaris.com.pathofexile.response.AffixGroup;
+import dev.tricht.lunaris.com.pathofexile.response.StatsResponse;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The stats catalog of pathofexile.com/trade, indexed by affix template ("+# to maximum Life").
+ *
+ * Every template is stored once with its own id and, when the catalog has a "(Local)" variant, the
+ * id of that variant. An affix line from the clipboard is turned into its template and its sign
+ * stripped template in one pass, after which at most four hash lookups find the stat.
+ */
+public class AffixIndex {
+
+    // The groups of the catalog that are indexed
+    static final Set<String> GROUP_LABELS = Set.of("Explicit", "Implicit", "Crafted");
+
+    private static final String LOCAL_SUFFIX = " (Local)";
+    private static final String RANGE = "# to #";
+    private static final String[] MOD_TYPES = {"implicit", "crafted"};
+    private static final String[] MOD_TYPE_SUFFIXES = {" (implicit)", " (crafted)"};
+
+    private final Map<String, Map<String, Entry>> knownAffixes = new HashMap<>();
+    private final Map<String, Entry> explicitAffixes = new HashMap<>();
+
+    public AffixIndex(StatsResponse statsResponse) {
+        for (AffixGroup affixGroup : statsResponse.getAffixGroup()) {
+            Map<String, Affix> affixGroupMap = new HashMap<>();
+            for (Affix affixResponse : affixGroup.getAffixResponses()) {
+                if (affixGroupMap.containsKey(affixResponse.getText()) && affixGroupMap.get(affixResponse.getText()).getIdLong() > affixResponse.getIdLong()) {
+                    continue;
+                }
+                affixGroupMap.put(affixResponse.getText(), affixResponse);
+            }
+            // TODO: Fractured, Delve, Monster, Pseudo, Enchant and Veiled
+            switch (affixGroup.getLabel()) {
+                case "Crafted":
+                case "Implicit":
+                    knownAffixes.put(affixGroup.getLabel().toLowerCase(), compile(affixGroupMap));
+                    break;
+                case "Explicit":
+                    explicitAffixes.putAll(compile(affixGroupMap));
+                    break;
+            }
+        }
+    }
+
+    private static Map<String, Entry> compile(Map<String, Affix> affixes) {
+        Map<String, Entry> entries = new HashMap<>();
+        for (Affix affix : affixes.values()) {
+            String text = affix.getText();
+            Entry entry = entries.computeIfAbsent(text, key -> new Entry(key.contains(RANGE)));
+            entry.id = affix.getId();
+            if (text.endsWith(LOCAL_SUFFIX)) {
+                String template = text.substring(0, text.length() - LOCAL_SUFFIX.length());
+                entries.computeIfAbsent(template, key -> new Entry(key.contains(RANGE))).localId = affix.getId();
+            }
+        }
+        return entries;
+    }
+
+    public int size() {
+        return explicitAffixes.size() + knownAffixes.values().stream().mapToInt(Map::size).sum();
+    }
+
+    /**
+     * @return the matching stat, or null when the affix is not in the catalog
+     */
+    public Match find(String affix) {
+        int length = affix.length();
+        StringBuilder template = new StringBuilder(length);
+        StringBuilder stripped = new StringBuilder(length);
+        int[] values = new int[4];
+        int valueCount = 0;
+
+        int i = 0;
+        while (i < length) {
+            char c = affix.charAt(i);
+            boolean negative = c == '-' && i + 1 < length && Character.isDigit(affix.charAt(i + 1));
+            if (negative || Character.isDigit(c)) {
+                if (negative) {
+                    i++;
+                }
+                int value = 0;
+                while (i < length && Character.isDigit(affix.charAt(i))) {
+                    value = value * 10 + (affix.charAt(i++) - '0');
+                }
+                // Decimals such as "0.2% of Physical Attack Damage Leeched as Life" are one placeholder
+                if (i + 1 < length && affix.charAt(i) == '.' && Character.isDigit(affix.charAt(i + 1))) {
+                    i++;
+                    while (i < length && Character.isDigit(affix.charAt(i))) {
+                        i++;
+                    }
+                }
+                if (valueCount == values.length) {
+                    values = Arrays.copyOf(values, valueCount * 2);
+                }
+                values[valueCount++] = negative ? -value : value;
+                template.append('#');
+                stripped.append('#');
+                continue;
+            }
+            template.append(c);
+            if (c != '+' && c != '-') {
+                stripped.append(c);
+            }
+            i++;
+        }
+
+        String modType = null;
+        for (int type = 0; type < MOD_TYPES.length; type++) {
+            String suffix = MOD_TYPE_SUFFIXES[type];
+            if (endsWith(template, suffix)) {
+                modType = MOD_TYPES[type];
+                template.setLength(template.length() - suffix.length());
+                stripped.setLength(stripped.length() - suffix.length());
+                break;
+            }
+        }
+
+        return find(modType, template.toString(), stripped.toString(), Arrays.copyOf(values, valueCount));
+    }
+
+    private static boolean endsWith(StringBuilder builder, String suffix) {
+        int offset = builder.length() - suffix.length();
+        if (offset < 0) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            if (builder.charAt(offset + i) != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Match find(String modType, String template, String stripped, int[] values) {
+        Map<String, Entry> modTypeAffixes = modType != null ? knownAffixes.get(modType) : null;
+        boolean hasStripped = !stripped.equals(template);
+
+        Entry[] candidates = {
+                modTypeAffixes != null ? modTypeAffixes.get(template) : null,
+                explicitAffixes.get(template),
+                modTypeAffixes != null && hasStripped ? modTypeAffixes.get(stripped) : null,
+                hasStripped ? explicitAffixes.get(stripped) : null
+        };
+        for (Entry candidate : candidates) {
+            if (candidate != null && candidate.id != null) {
+                return new Match(candidate.id, values, candidate.range);
+            }
+        }
+        for (Entry candidate : candidates) {
+            if (candidate != null && candidate.localId != null) {
+                return new Match(candidate.localId, values, candidate.range);
+            }
+        }
+        return null;
+    }
+
+    private static class Entry {
+        // The template has a "# to #" range such as "Adds # to # Cold Damage"
+        private final boolean range;
+        private String id;
+        private String localId;
+
+        Entry(boolean range) {
+            this.range = range;
+        }
+    }
+
+    public static class Match {
+        @Getter
+        private final String id;
+        @Getter
+        private final int[] values;
+        private final boolean range;
+
+        Match(String id, int[] values, boolean range) {
+            this.id = id;
+            this.values = values;
+            this.range = range;
+        }
+
+        /**
+         * Minimum value for the trade search, ranges such as "Adds 130 to 185 Cold Damage" use their average.
+         */
+        public Integer getMinimum() {
+            if (values.length == 0) {
+                return null;
+            }
+            if (range && values.length == 2) {
+                return (values[0] + values[1]) / 2;
+            }
+            return values[0];
+        }
+    }
+}
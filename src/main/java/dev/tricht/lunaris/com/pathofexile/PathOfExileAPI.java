@@ -2,26 +2,34 @@ package dev.tricht.lunaris.com.pathofexile;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import dev.tricht.lunaris.PropertiesManager;
+import dev.tricht.lunaris.data.DataDirectory;
 import dev.tricht.lunaris.com.pathofexile.request.*;
 import dev.tricht.lunaris.com.pathofexile.response.*;
 import dev.tricht.lunaris.item.Item;
 import dev.tricht.lunaris.item.ItemRarity;
 import dev.tricht.lunaris.item.types.*;
+import dev.tricht.lunaris.ninja.poe.CurrencyRates;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.CookieManager;
 import java.net.CookiePolicy;
 import java.net.HttpCookie;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -29,24 +37,67 @@ public class PathOfExileAPI {
 
     private OkHttpClient client;
     private ObjectMapper objectMapper;
-    private Map<String, Map<String, Affix>> knownAffixes = new HashMap<>();
-    private Map<String, Affix> explicitAffixes = new HashMap<>();
-    private final Pattern digitPattern = Pattern.compile("(-?[0-9]+)");
-    private final Pattern modTypePattern = Pattern.compile("\\s\\((implicit|crafted)\\)");
+    // Replaced when a revalidation finds a changed catalog
+    private volatile AffixIndex affixIndex;
+    private byte[] statsCatalog;
+    // Completes once there is a catalog, until then a check would search without stat filters
+    private final CompletableFuture<Void> statsAvailable = new CompletableFuture<>();
+    private ScheduledExecutorService statsScheduler;
     @Getter
     @Setter
     private String league;
     private CookieManager cookieManager;
     private String sessionId;
+    // Called on the OkHttp dispatcher thread, so it has to answer without waiting for a download
+    @Setter
+    private Supplier<CurrencyRates> currencyRates = () -> null;
+    private TradeCache tradeCache;
+    private RateLimiter rateLimiter;
+    private final Map<String, LongSummaryStatistics> stageLatencies = new ConcurrentHashMap<>();
+    // By trade cache key, removed when the search completes
+    private final Map<String, TradeFlight> inFlightSearches = new ConcurrentHashMap<>();
+    private final AtomicLong coalescedSearches = new AtomicLong();
+
+    private static final int TRADE_CACHE_SIZE = 100;
+    private static final int DEFAULT_TRADE_CACHE_SECONDS = 60;
+    private static final int SEARCH_TIMEOUT_SECONDS = 10;
+    private static final int FETCH_TIMEOUT_SECONDS = 10;
+    private static final int STATS_REVALIDATE_INTERVAL_MINUTES = 60;
+    private static final int STATS_RETRY_MINUTES = 1;
+    private static final int STATS_WAIT_SECONDS = 10;
+    private static final String LEAGUES_FILE = "leagues.txt";
 
     public PathOfExileAPI() {
+        this(null);
+    }
+
+    /**
+     * @param statsResponse the trade stats catalog, or null to use the catalog stored on disk and revalidate it
+     *                      with pathofexile.com in the background
+     */
+    public PathOfExileAPI(StatsResponse statsResponse) {
+        this(statsResponse, new OkHttpClient.Builder(), new RateLimiter());
+    }
+
+    PathOfExileAPI(StatsResponse statsResponse, OkHttpClient.Builder clientBuilder, RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
         cookieManager = new CookieManager();
         cookieManager.setCookiePolicy(CookiePolicy.ACCEPT_ALL);
-        this.client = new OkHttpClient.Builder()
+        this.client = clientBuilder
                 .cookieJar(new JavaNetCookieJar(cookieManager))
+                .addInterceptor(rateLimiter)
                 .build();
-        this.objectMapper = new ObjectMapper();
-        getStats();
+        // Sorted so that equal trade requests serialize to equal cache keys
+        this.objectMapper = new ObjectMapper()
+                .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+                .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        tradeCache = new TradeCache(TRADE_CACHE_SIZE, getTradeCacheSeconds() * 1000L);
+        if (statsResponse != null) {
+            affixIndex = new AffixIndex(statsResponse);
+            statsAvailable.complete(null);
+        } else {
+            loadStats();
+        }
         String sessionid = PropertiesManager.getProperty(PropertiesManager.POESESSID);
         if (sessionid != null) {
             setSessionId(sessionid);
@@ -67,61 +118,295 @@ public class PathOfExileAPI {
     }
 
     public List<String> getTradeLeagues() {
-        return getLeagues().stream().filter(s -> !s.contains("SSF")).collect(Collectors.toList());
+        return toTradeLeagues(getLeagues());
+    }
+
+    private static List<String> toTradeLeagues(List<String> leagues) {
+        return leagues.stream().filter(s -> !s.contains("SSF")).collect(Collectors.toList());
+    }
+
+    /**
+     * @return the trade leagues of the last successful getTradeLeaguesAsync(), empty when there was none
+     */
+    public List<String> getCachedTradeLeagues() {
+        File file = new File(DataDirectory.getDirectory(), LEAGUES_FILE);
+        if (!file.exists()) {
+            return Collections.emptyList();
+        }
+        try {
+            return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).stream()
+                    .filter(line -> !line.isBlank())
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            log.error("Unable to read cached leagues", e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Gets the trade leagues without blocking and caches them for the next start.
+     */
+    public CompletableFuture<List<String>> getTradeLeaguesAsync() {
+        log.debug("Getting leagues from pathofexile.com");
+        CompletableFuture<List<String>> future = new CompletableFuture<>();
+        client.newCall(createLeaguesRequest()).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (response) {
+                    if (!response.isSuccessful()) {
+                        throw new IOException("Unexpected response " + response.code());
+                    }
+                    List<String> leagues = toTradeLeagues(readLeagues(response.body().string()));
+                    try {
+                        Files.write(new File(DataDirectory.getDirectory(), LEAGUES_FILE).toPath(), leagues, StandardCharsets.UTF_8);
+                    } catch (IOException e) {
+                        log.error("Unable to cache leagues", e);
+                    }
+                    future.complete(leagues);
+                } catch (IOException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        return future;
     }
 
     public List<String> getLeagues() {
         log.debug("Getting leagues from pathofexile.com");
-        Request request = new Request.Builder()
-                .url("http://api.pathofexile.com/leagues")
-                .build();
         Response response;
         try {
-            response = client.newCall(request).execute();
-            List<League> leagues = objectMapper.readValue(response.body().string(), new TypeReference<List<League>>(){});
-            return leagues.stream().map(League::getId).collect(Collectors.toList());
+            response = client.newCall(createLeaguesRequest()).execute();
+            return readLeagues(response.body().string());
         } catch (IOException e) {
             throw new RuntimeException("Failed to get leagues", e);
         }
     }
 
-    private void getStats() {
+    private static Request createLeaguesRequest() {
+        return new Request.Builder()
+                .url("http://api.pathofexile.com/leagues")
+                .build();
+    }
+
+    private List<String> readLeagues(String body) throws IOException {
+        List<League> leagues = objectMapper.readValue(body, new TypeReference<List<League>>(){});
+        return leagues.stream().map(League::getId).collect(Collectors.toList());
+    }
+
+    /**
+     * Starts with the catalog on disk, or waits for the first download when there is none, and
+     * revalidates it periodically.
+     */
+    private void loadStats() {
+        File file = new File(DataDirectory.getDirectory(), StatsCatalog.FILE_NAME);
+        byte[] bytes = StatsCatalog.read(file);
+        StatsResponse cached = bytes != null ? StatsCatalog.decode(bytes) : null;
+        if (cached != null) {
+            statsCatalog = bytes;
+            affixIndex = new AffixIndex(cached);
+            statsAvailable.complete(null);
+        } else {
+            StatsResponse empty = new StatsResponse();
+            empty.setAffixGroup(Collections.emptyList());
+            affixIndex = new AffixIndex(empty);
+        }
+        statsScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Trade stats revalidation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        statsScheduler.scheduleWithFixedDelay(() -> revalidateStats(file),
+                0, STATS_REVALIDATE_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    private void revalidateStats(File file) {
         Request request = new Request.Builder()
                 .url("http://api.pathofexile.com/trade/data/stats")
                 .build();
-        StatsResponse statsResponse;
+        try (Response response = client.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new IOException("Unexpected response " + response.code());
+            }
+            StatsResponse statsResponse = objectMapper.readValue(response.body().string(), StatsResponse.class);
+            byte[] bytes = StatsCatalog.encode(statsResponse);
+            if (Arrays.equals(bytes, statsCatalog)) {
+                log.debug("Trade stats catalog unchanged");
+                return;
+            }
+            affixIndex = new AffixIndex(StatsCatalog.decode(bytes));
+            statsCatalog = bytes;
+            statsAvailable.complete(null);
+            StatsCatalog.write(file, bytes);
+            log.debug("Trade stats catalog updated, {} affixes", affixIndex.size());
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to get stats", e);
+            if (!statsAvailable.isDone()) {
+                statsScheduler.schedule(() -> revalidateStats(file), STATS_RETRY_MINUTES, TimeUnit.MINUTES);
+            }
+        }
+    }
+
+    /**
+     * @return completes once there is a stats catalog, or exceptionally with a StatsUnavailableException
+     * when the first download takes longer than STATS_WAIT_SECONDS
+     */
+    private CompletableFuture<Void> waitForStats() {
+        log.debug("Waiting for the trade stats catalog");
+        return statsAvailable.copy()
+                .orTimeout(STATS_WAIT_SECONDS, TimeUnit.SECONDS)
+                .exceptionally(error -> {
+                    throw new CompletionException(new StatsUnavailableException(error));
+                });
+    }
+
+    /**
+     * Searches the item and fetches its first listings, or answers from the trade cache when the same
+     * search was done recently. Callers of a search that is already in flight share its result instead of
+     * searching again, its calls are cancelled when every caller has cancelled. No thread waits on
+     * pathofexile.com while the result is pending.
+     *
+     * @return completes with the result, or exceptionally with an IOException (RateLimitException when
+     * the rate limit does not allow the calls soon enough, StatsUnavailableException when the stats
+     * catalog is not there yet)
+     */
+    public CompletableFuture<TradeResult> find(Item item) {
+        if (!statsAvailable.isDone()) {
+            return waitForStats().thenCompose(ignored -> find(item));
+        }
+        String requestBody;
         try {
-            Response response = client.newCall(request).execute();
-            statsResponse = objectMapper.readValue(response.body().string(), StatsResponse.class);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to get leagues", e);
+            requestBody = objectMapper.writeValueAsString(createTradeRequest(item));
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize trade request", e);
+            return CompletableFuture.failedFuture(e);
+        }
+        String key = TradeCache.key(league, requestBody);
+        TradeResult cached = tradeCache.get(key, System.currentTimeMillis());
+        if (cached != null) {
+            log.debug("Trade result from cache, {} hits, {} misses", tradeCache.getHits(), tradeCache.getMisses());
+            return CompletableFuture.completedFuture(cached);
         }
-        for (AffixGroup affixGroup : statsResponse.getAffixGroup()) {
-            if (!affixGroup.getLabel().toLowerCase().matches("crafted|implicit|explicit")) {
-                continue;
+
+        TradeFlight flight = new TradeFlight();
+        TradeFlight inFlight;
+        while ((inFlight = inFlightSearches.putIfAbsent(key, flight)) != null) {
+            CompletableFuture<TradeResult> joined = inFlight.join();
+            if (joined != null) {
+                log.debug("Joined an identical search in flight, {} coalesced", coalescedSearches.incrementAndGet());
+                return joined;
             }
-            Map<String, Affix> affixGroupMap = new HashMap<>();
-            for (Affix affixResponse : affixGroup.getAffixResponses()) {
-                if (affixGroupMap.containsKey(affixResponse.getText()) && affixGroupMap.get(affixResponse.getText()).getIdLong() > affixResponse.getIdLong()) {
-                    continue;
-                }
-                affixGroupMap.put(affixResponse.getText(), affixResponse);
+            // Every caller of that search has cancelled it. When another caller replaced it first, join theirs.
+            if (inFlightSearches.replace(key, inFlight, flight)) {
+                break;
             }
-            // TODO: Fractured, Delve, Monster, Pseudo, Enchant and Veiled
-            if (affixGroup.getLabel().matches("Crafted|Implicit")) {
-                knownAffixes.put(affixGroup.getLabel().toLowerCase(), affixGroupMap);
-            } else if (affixGroup.getLabel().equals("Explicit")) {
-                explicitAffixes = affixGroupMap;
+        }
+        CompletableFuture<TradeResult> future = flight.join();
+
+        long started = System.currentTimeMillis();
+        search(requestBody, flight)
+                .thenCompose(searchResponse -> {
+                    if (searchResponse.getId() == null || searchResponse.getResult() == null
+                            || searchResponse.getResult().isEmpty()) {
+                        return CompletableFuture.completedFuture(new TradeResult(searchResponse, Collections.emptyList()));
+                    }
+                    return fetch(searchResponse, flight).thenApply(listings -> new TradeResult(searchResponse, listings));
+                })
+                .whenComplete((result, error) -> {
+                    if (error == null && result.getSearch().getId() != null) {
+                        tradeCache.put(key, result, System.currentTimeMillis());
+                        recordLatency("total", started);
+                    }
+                    inFlightSearches.remove(key, flight);
+                    flight.complete(result, error);
+                });
+        return future;
+    }
+
+    /**
+     * Only searches the item, without fetching its listings, or answers from the trade cache when the same
+     * search was done recently.
+     *
+     * @return completes with the search, or exceptionally with an IOException
+     */
+    public CompletableFuture<SearchResponse> search(Item item) {
+        if (!statsAvailable.isDone()) {
+            return waitForStats().thenCompose(ignored -> search(item));
+        }
+        String requestBody;
+        try {
+            requestBody = objectMapper.writeValueAsString(createTradeRequest(item));
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize trade request", e);
+            return CompletableFuture.failedFuture(e);
+        }
+        TradeResult cached = tradeCache.get(TradeCache.key(league, requestBody), System.currentTimeMillis());
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached.getSearch());
+        }
+        return search(requestBody, new TradeFlight());
+    }
+
+    /**
+     * @return how many searches were answered by joining an identical search that was in flight
+     */
+    public long getCoalescedSearches() {
+        return coalescedSearches.get();
+    }
+
+    /**
+     * @return per stage (search, fetch, total) the count, average and maximum latency in milliseconds
+     */
+    public Map<String, LongSummaryStatistics> getStageLatencies() {
+        Map<String, LongSummaryStatistics> latencies = new TreeMap<>();
+        stageLatencies.forEach((stage, statistics) -> {
+            synchronized (statistics) {
+                LongSummaryStatistics copy = new LongSummaryStatistics();
+                copy.combine(statistics);
+                latencies.put(stage, copy);
             }
+        });
+        return latencies;
+    }
+
+    private void recordLatency(String stage, long started) {
+        long latency = System.currentTimeMillis() - started;
+        LongSummaryStatistics statistics = stageLatencies.computeIfAbsent(stage, key -> new LongSummaryStatistics());
+        synchronized (statistics) {
+            statistics.accept(latency);
+            log.debug(String.format("Trade %s took %d ms, average %.0f ms", stage, latency, statistics.getAverage()));
         }
     }
 
-    public void find(Item item, Callback callback) {
+    public long getTradeCacheHits() {
+        return tradeCache.getHits();
+    }
+
+    public long getTradeCacheMisses() {
+        return tradeCache.getMisses();
+    }
+
+    private static int getTradeCacheSeconds() {
+        if (PropertiesManager.containsKey(PropertiesManager.TRADE_CACHE_SECONDS)) {
+            try {
+                return Integer.parseInt(PropertiesManager.getProperty(PropertiesManager.TRADE_CACHE_SECONDS));
+            } catch (NumberFormatException e) {
+                log.error("Invalid " + PropertiesManager.TRADE_CACHE_SECONDS + ", using " + DEFAULT_TRADE_CACHE_SECONDS);
+            }
+        }
+        return DEFAULT_TRADE_CACHE_SECONDS;
+    }
+
+    public TradeRequest createTradeRequest(Item item) {
         TradeRequest tradeRequest = new TradeRequest();
         Query query = new Query();
         tradeRequest.setQuery(query);
         populateQuery(item, query);
-        search(tradeRequest, callback);
+        return tradeRequest;
     }
 
     private void populateQuery(Item item, Query query) {
@@ -165,45 +450,20 @@ public class PathOfExileAPI {
         query.getStats().add(stat);
         List<StatFilter> statFilters = new ArrayList<>();
         for (String affix : item.getAffixes()) {
-            Matcher affixWithoutDigitsMatcher = digitPattern.matcher(affix);
-            Integer minimal = null;
-            if (affixWithoutDigitsMatcher.find()) {
-                if (affixWithoutDigitsMatcher.groupCount() == 1) {
-                    minimal = Integer.parseInt(affixWithoutDigitsMatcher.group(1));
-                } else if (affixWithoutDigitsMatcher.groupCount() == 2) {
-                    minimal = (Integer.parseInt(affixWithoutDigitsMatcher.group(1))
-                            + Integer.parseInt(affixWithoutDigitsMatcher.group(2))) / 2;
-                }
-            }
-            String affixWithoutDigits = affixWithoutDigitsMatcher.replaceAll("#");
-            Matcher affixModTypeMatcher = modTypePattern.matcher(affixWithoutDigits);
-            String modType = null;
-            if (affixModTypeMatcher.find()) {
-                modType = affixModTypeMatcher.group(1);
-            }
-            String affixWithoutModType = affixModTypeMatcher.replaceAll("");
-            String foundAffix = findAffix(modType, affixWithoutModType);
-            if (foundAffix == null) {
-                foundAffix = findAffix(modType, affixWithoutModType.replaceAll("[+\\-]", ""));
-            }
-            if (foundAffix == null) {
-                foundAffix = findAffix(modType, affixWithoutModType + " (Local)");
-            }
-            if (foundAffix == null) {
-                foundAffix = findAffix(modType, affixWithoutModType.replaceAll("[+\\-]", "") + " (Local)");
-            }
+            AffixIndex.Match foundAffix = affixIndex.find(affix);
             if (foundAffix != null) {
                 StatFilter statFilter = new StatFilter();
-                statFilter.setId(foundAffix);
+                statFilter.setId(foundAffix.getId());
+                Integer minimal = foundAffix.getMinimum();
                 if (minimal != null) {
                     Value value = new Value();
                     value.setMin(minimal);
                     statFilter.setValue(value);
                 }
-                log.debug(String.format("Affix %s found as %s", affix, foundAffix));
+                log.debug("Affix {} found as {}", affix, foundAffix.getId());
                 statFilters.add(statFilter);
             } else {
-                log.debug(String.format("Affix %s not found", affix));
+                log.debug("Affix {} not found", affix);
             }
         }
         stat.setFilters(statFilters);
@@ -288,48 +548,98 @@ public class PathOfExileAPI {
         // Dex, str and int include the gem requirements.
     }
 
-    private String findAffix(String modType, String affix) {
-        if (modType != null) {
-            if (knownAffixes.get(modType).containsKey(affix)) {
-                return knownAffixes.get(modType).get(affix).getId();
-            }
-        }
-        if (explicitAffixes.containsKey(affix)) {
-            return explicitAffixes.get(affix).getId();
-        }
-        return null;
-    }
-
-    private void search(TradeRequest tradeRequest, Callback callback) {
-        String requestBody;
-        try {
-            requestBody = objectMapper.writeValueAsString(tradeRequest);
-        } catch (JsonProcessingException e) {
-            log.error("Failed to serialize trade request", e);
-            return;
-        }
+    private CompletableFuture<SearchResponse> search(String requestBody, TradeFlight flight) {
         Request request = new Request.Builder()
                 .url("https://www.pathofexile.com/api/trade/search/" + league)
                 .post(RequestBody.create(MediaType.parse("application/json"), requestBody.getBytes()))
                 .build();
-        Call call = client.newCall(request);
-        call.enqueue(callback);
+        long started = System.currentTimeMillis();
+        return call(request, SEARCH_TIMEOUT_SECONDS, flight).thenApply(body -> {
+            recordLatency("search", started);
+            return readValue(body, SearchResponse.class);
+        });
     }
 
-    public List<ListingResponse.Item> getItemListings(SearchResponse searchResponse) {
+    private CompletableFuture<List<ListingResponse.Item>> fetch(SearchResponse searchResponse, TradeFlight flight) {
         String ids = String.join(",", searchResponse.getResult().subList(
                 0,
-                (Math.min(searchResponse.getTotal(), 10))
+                (Math.min(searchResponse.getResult().size(), 10))
         ));
         Request request = new Request.Builder()
                 .url("https://www.pathofexile.com/api/trade/fetch/" + ids + "?query=" + searchResponse.getId())
                 .build();
-        try {
-            Response response = client.newCall(request).execute();
-            ListingResponse itemListings = objectMapper.readValue(response.body().string(), ListingResponse.class);
+        long started = System.currentTimeMillis();
+        return call(request, FETCH_TIMEOUT_SECONDS, flight).thenApply(body -> {
+            recordLatency("fetch", started);
+            ListingResponse itemListings = readValue(body, ListingResponse.class);
+            CurrencyRates rates = currencyRates.get();
+            if (rates != null) {
+                itemListings.convertPrices(rates);
+            }
             return itemListings.getResult();
+        });
+    }
+
+    /**
+     * Enqueues the request once the rate limit allows it. The timeout covers the call itself, not the
+     * time waited for the rate limit.
+     *
+     * @return the response body
+     */
+    private CompletableFuture<String> call(Request request, int timeoutSeconds, TradeFlight flight) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        if (flight.isCancelled()) {
+            future.completeExceptionally(new CancellationException("Trade search cancelled"));
+            return future;
+        }
+        long slot;
+        try {
+            slot = rateLimiter.reserve(request.url());
+        } catch (RateLimitException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        Call call = client.newCall(request);
+        call.timeout().timeout(timeoutSeconds, TimeUnit.SECONDS);
+        long wait = slot - System.currentTimeMillis();
+        Executor executor = wait > 0 ? CompletableFuture.delayedExecutor(wait, TimeUnit.MILLISECONDS) : Runnable::run;
+        executor.execute(() -> {
+            if (!flight.add(call)) {
+                // Cancelled while waiting for the slot, so the call is never made
+                rateLimiter.release(request.url(), slot);
+                future.completeExceptionally(new CancellationException("Trade search cancelled"));
+                return;
+            }
+            call.enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    future.completeExceptionally(e);
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) {
+                    try (response) {
+                        if (response.code() == 429) {
+                            throw new RateLimitException(rateLimiter.getWaitMillis(request.url()));
+                        }
+                        if (!response.isSuccessful()) {
+                            throw new IOException("Unexpected response " + response.code());
+                        }
+                        future.complete(response.body().string());
+                    } catch (IOException e) {
+                        future.completeExceptionally(e);
+                    }
+                }
+            });
+        });
+        return future;
+    }
+
+    private <T> T readValue(String body, Class<T> type) {
+        try {
+            return objectMapper.readValue(body, type);
         } catch (IOException e) {
-            throw new RateLimitMostLikelyException("Failed to get item listings", e);
+            throw new CompletionException(e);
         }
     }
 
@@ -0,0 +1,17 @@
+package dev.tricht.lunaris.com.pathofexile;
+
+import java.io.IOException;
+
+public class RateLimitException extends IOException {
+
+    private final long waitMillis;
+
+    public RateLimitException(long waitMillis) {
+        super(String.format("Rate limited by pathofexile.com for %d seconds", (waitMillis + 999) / 1000));
+        this.waitMillis = waitMillis;
+    }
+
+    public long getWaitSeconds() {
+        return (waitMillis + 999) / 1000;
+    }
+}
@@ -0,0 +1,338 @@
+package dev.tricht.lunaris.com.pathofexile;
+
+import dev.tricht.lunaris.data.DataDirectory;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Keeps the trade search and fetch calls under the limits pathofexile.com announces in its
+ * X-Rate-Limit headers. A call reserves the first slot every window of its policy has room for, and is
+ * made once that slot has come. As an interceptor it reads the limits from every response.
+ *
+ * Penalties survive a restart, so a new start does not run into a lockout again.
+ */
+@Slf4j
+class RateLimiter implements Interceptor {
+
+    static final long MAX_WAIT_MILLIS = 10_000;
+    // Requests arrive a little later than they are sent, keep that much extra distance to a window edge
+    private static final long SAFETY_MILLIS = 250;
+    private static final String STATE_FILE = "rate-limits.properties";
+
+    private final Map<String, Policy> policies = new HashMap<>();
+    private File stateFile;
+
+    RateLimiter() {
+    }
+
+    /**
+     * @param stateFile where the penalties are kept, instead of the data directory
+     */
+    RateLimiter(File stateFile) {
+        this.stateFile = stateFile;
+        loadState();
+    }
+
+    /**
+     * Takes a slot for a call to the url.
+     *
+     * @return the time in milliseconds the call can be made at
+     * @throws RateLimitException when the call would have to wait longer than MAX_WAIT_MILLIS
+     */
+    long reserve(HttpUrl url) throws RateLimitException {
+        long now = System.currentTimeMillis();
+        String name = getPolicyName(url);
+        if (name == null) {
+            return now;
+        }
+        long wait = getPolicy(name).reserve(now);
+        if (wait > MAX_WAIT_MILLIS) {
+            throw new RateLimitException(wait);
+        }
+        if (wait > 0) {
+            log.debug(String.format("Delaying %s call by %d ms", name, wait));
+        }
+        return now + wait;
+    }
+
+    /**
+     * Gives back a slot taken by reserve() for a call that was not made.
+     */
+    void release(HttpUrl url, long slot) {
+        String name = getPolicyName(url);
+        if (name != null) {
+            getPolicy(name).release(slot);
+        }
+    }
+
+    /**
+     * @return milliseconds until the penalty of the policy of the url ends
+     */
+    long getWaitMillis(HttpUrl url) {
+        String name = getPolicyName(url);
+        if (name == null) {
+            return 0;
+        }
+        return Math.max(0, getPolicy(name).getBlockedUntil() - System.currentTimeMillis());
+    }
+
+    /**
+     * Adopts the limits and state the server reports in the response.
+     */
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Response response = chain.proceed(request);
+        String name = getPolicyName(request.url());
+        if (name != null && getPolicy(name).update(response.code(), response.headers(), System.currentTimeMillis())) {
+            saveState();
+        }
+        return response;
+    }
+
+    /**
+     * @return search or fetch for trade calls, null for calls that are not limited
+     */
+    static String getPolicyName(HttpUrl url) {
+        List<String> segments = url.pathSegments();
+        if (segments.size() > 2 && segments.get(0).equals("api") && segments.get(1).equals("trade")) {
+            String name = segments.get(2);
+            if (name.equals("search") || name.equals("fetch")) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    private synchronized Policy getPolicy(String name) {
+        if (stateFile == null) {
+            stateFile = new File(DataDirectory.getDirectory(), STATE_FILE);
+            loadState();
+        }
+        return policies.computeIfAbsent(name, key -> new Policy());
+    }
+
+    private void loadState() {
+        if (!stateFile.exists()) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(stateFile)) {
+            properties.load(in);
+        } catch (IOException e) {
+            log.error("Unable to read rate limit state", e);
+            return;
+        }
+        for (String name : properties.stringPropertyNames()) {
+            try {
+                Policy policy = new Policy();
+                policy.blockedUntil = Long.parseLong(properties.getProperty(name));
+                policies.put(name, policy);
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring rate limit state of " + name);
+            }
+        }
+    }
+
+    private synchronized void saveState() {
+        Properties properties = new Properties();
+        for (Map.Entry<String, Policy> entry : policies.entrySet()) {
+            properties.setProperty(entry.getKey(), Long.toString(entry.getValue().getBlockedUntil()));
+        }
+        try (OutputStream out = new FileOutputStream(stateFile)) {
+            properties.store(out, null);
+        } catch (IOException e) {
+            log.error("Unable to save rate limit state", e);
+        }
+    }
+
+    /**
+     * The windows of one policy, from every rule (Ip, Account, ...) the server applies to it.
+     */
+    static class Policy {
+
+        private final Map<String, Window> windows = new LinkedHashMap<>();
+        private long blockedUntil;
+        // Calls are given slots in order, so every window keeps its hits sorted
+        private long lastReserved;
+
+        synchronized long getBlockedUntil() {
+            return blockedUntil;
+        }
+
+        /**
+         * Takes the earliest slot every window has room for.
+         *
+         * @return milliseconds until the slot, the slot is not taken when that is above MAX_WAIT_MILLIS
+         */
+        synchronized long reserve(long now) {
+            long slot = Math.max(now, Math.max(blockedUntil, lastReserved));
+            for (Window window : windows.values()) {
+                window.prune(now);
+            }
+            for (Window window : windows.values()) {
+                slot = Math.max(slot, window.nextSlot(slot));
+            }
+            if (slot - now > MAX_WAIT_MILLIS) {
+                return slot - now;
+            }
+            for (Window window : windows.values()) {
+                window.hits.add(slot);
+            }
+            lastReserved = slot;
+            return slot - now;
+        }
+
+        /**
+         * Removes a reserved slot again, later calls can then take it.
+         */
+        synchronized void release(long slot) {
+            long last = 0;
+            for (Window window : windows.values()) {
+                window.hits.remove(Long.valueOf(slot));
+                if (!window.hits.isEmpty()) {
+                    last = Math.max(last, window.hits.get(window.hits.size() - 1));
+                }
+            }
+            if (lastReserved == slot) {
+                lastReserved = last;
+            }
+        }
+
+        /**
+         * Adopts the limits and state of a response.
+         *
+         * @return true when a penalty was started
+         */
+        synchronized boolean update(int code, Headers headers, long now) {
+            long penaltyUntil = 0;
+            String rules = headers.get("X-Rate-Limit-Rules");
+            if (rules != null) {
+                Set<String> seen = new HashSet<>();
+                for (String rule : rules.split(",")) {
+                    rule = rule.trim();
+                    String limits = headers.get("X-Rate-Limit-" + rule);
+                    String states = headers.get("X-Rate-Limit-" + rule + "-State");
+                    if (limits == null) {
+                        continue;
+                    }
+                    Map<Long, Integer> hitsByPeriod = new HashMap<>();
+                    if (states != null) {
+                        for (String state : states.split(",")) {
+                            long[] values = parse(state);
+                            if (values != null) {
+                                hitsByPeriod.put(values[1], (int) values[0]);
+                                penaltyUntil = Math.max(penaltyUntil, values[2] > 0 ? now + values[2] * 1000 : 0);
+                            }
+                        }
+                    }
+                    for (String limit : limits.split(",")) {
+                        long[] values = parse(limit);
+                        if (values == null) {
+                            continue;
+                        }
+                        String key = rule + ":" + values[1];
+                        seen.add(key);
+                        Window window = windows.get(key);
+                        if (window == null || window.maxHits != values[0]) {
+                            Window replacement = new Window((int) values[0], values[1] * 1000);
+                            if (window != null) {
+                                replacement.hits.addAll(window.hits);
+                            }
+                            window = replacement;
+                            windows.put(key, window);
+                        }
+                        window.sync(hitsByPeriod.getOrDefault(values[1], 0), now);
+                    }
+                }
+                windows.keySet().retainAll(seen);
+            }
+
+            if (code == 429) {
+                String retryAfter = headers.get("Retry-After");
+                long seconds = 60;
+                if (retryAfter != null) {
+                    try {
+                        seconds = Long.parseLong(retryAfter.trim());
+                    } catch (NumberFormatException e) {
+                        log.debug("Invalid Retry-After " + retryAfter);
+                    }
+                }
+                penaltyUntil = Math.max(penaltyUntil, now + seconds * 1000);
+            }
+            if (penaltyUntil > blockedUntil) {
+                log.error(String.format("Rate limited by pathofexile.com for %d seconds", (penaltyUntil - now) / 1000));
+                blockedUntil = penaltyUntil;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * @return hits, period and penalty of a "hits:period:penalty" triple
+         */
+        private static long[] parse(String triple) {
+            String[] parts = triple.trim().split(":");
+            if (parts.length != 3) {
+                return null;
+            }
+            try {
+                return new long[]{Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2])};
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    private static class Window {
+        private final int maxHits;
+        private final long periodMillis;
+        // Sorted, including slots that are reserved but not used yet
+        private final List<Long> hits = new ArrayList<>();
+
+        Window(int maxHits, long periodMillis) {
+            this.maxHits = maxHits;
+            this.periodMillis = periodMillis + SAFETY_MILLIS;
+        }
+
+        void prune(long now) {
+            while (!hits.isEmpty() && hits.get(0) <= now - periodMillis) {
+                hits.remove(0);
+            }
+        }
+
+        long nextSlot(long slot) {
+            int inWindow = 0;
+            for (long hit : hits) {
+                if (hit > slot - periodMillis) {
+                    inWindow++;
+                }
+            }
+            if (inWindow < maxHits) {
+                return slot;
+            }
+            // The slot opens when the hit that makes the window full has left it
+            return hits.get(hits.size() - maxHits) + periodMillis;
+        }
+
+        /**
+         * Counts hits the server saw but this client did not make, for example from a browser.
+         */
+        void sync(int serverHits, long now) {
+            int position = 0;
+            int recent = 0;
+            while (position < hits.size() && hits.get(position) <= now) {
+                if (hits.get(position) > now - periodMillis) {
+                    recent++;
+                }
+                position++;
+            }
+            for (int i = recent; i < serverHits; i++) {
+                hits.add(position, now);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package dev.tricht.lunaris.com.pathofexile;
+
+import dev.tricht.lunaris.com.pathofexile.response.Affix;
+import dev.tricht.lunaris.com.pathofexile.response.AffixGroup;
+import dev.tricht.lunaris.com.pathofexile.response.StatsResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary copy of the groups of the trade stats catalog that AffixIndex uses, so a start does not need
+ * to download the catalog first. Only ids and texts are kept.
+ */
+@Slf4j
+class StatsCatalog {
+
+    static final String FILE_NAME = "trade-stats.bin";
+
+    private static final int MAGIC = 0x4C545343;
+    private static final int VERSION = 1;
+
+    static byte[] encode(StatsResponse statsResponse) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            List<AffixGroup> groups = new ArrayList<>();
+            for (AffixGroup group : statsResponse.getAffixGroup()) {
+                if (AffixIndex.GROUP_LABELS.contains(group.getLabel())) {
+                    groups.add(group);
+                }
+            }
+            out.writeInt(groups.size());
+            for (AffixGroup group : groups) {
+                out.writeUTF(group.getLabel());
+                out.writeInt(group.getAffixResponses().size());
+                for (Affix affix : group.getAffixResponses()) {
+                    out.writeUTF(affix.getId());
+                    out.writeUTF(affix.getText());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return the catalog, or null when the bytes are not a catalog of this version
+     */
+    static StatsResponse decode(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            List<AffixGroup> groups = new ArrayList<>();
+            int groupCount = in.readInt();
+            for (int i = 0; i < groupCount; i++) {
+                AffixGroup group = new AffixGroup();
+                group.setLabel(in.readUTF());
+                List<Affix> affixes = new ArrayList<>();
+                int affixCount = in.readInt();
+                for (int j = 0; j < affixCount; j++) {
+                    Affix affix = new Affix();
+                    affix.setId(in.readUTF());
+                    affix.setText(in.readUTF());
+                    affixes.add(affix);
+                }
+                group.setAffixResponses(affixes);
+                groups.add(group);
+            }
+            StatsResponse statsResponse = new StatsResponse();
+            statsResponse.setAffixGroup(groups);
+            return statsResponse;
+        } catch (IOException e) {
+            log.error("Unable to parse the trade stats catalog", e);
+            return null;
+        }
+    }
+
+    /**
+     * @return the bytes of the catalog, or null when there is none
+     */
+    static byte[] read(File file) {
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            log.error(String.format("Unable to read %s", file.getAbsolutePath()), e);
+            return null;
+        }
+    }
+
+    static void write(File file, byte[] bytes) {
+        File temporary = new File(file.getParentFile(), file.getName() + ".tmp");
+        try {
+            Files.write(temporary.toPath(), bytes);
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.error(String.format("Unable to write %s", file.getAbsolutePath()), e);
+            temporary.delete();
+        }
+    }
+}
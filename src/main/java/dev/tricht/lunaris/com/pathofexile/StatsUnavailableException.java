@@ -0,0 +1,10 @@
+package dev.tricht.lunaris.com.pathofexile;
+
+import java.io.IOException;
+
+public class StatsUnavailableException extends IOException {
+
+    public StatsUnavailableException(Throwable cause) {
+        super("The trade stats catalog has not been downloaded yet", cause);
+    }
+}
@@ -0,0 +1,86 @@
+package dev.tricht.lunaris.com.pathofexile;
+
+import dev.tricht.lunaris.com.pathofexile.response.TradeResult;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recent trade results by league and serialized TradeRequest, so checking the same item again does not
+ * spend rate limit budget.
+ */
+class TradeCache {
+
+    private final long timeToLiveMillis;
+    private final LinkedHashMap<String, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    TradeCache(int maxEntries, long timeToLiveMillis) {
+        this.timeToLiveMillis = timeToLiveMillis;
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @param requestBody the TradeRequest serialized with sorted properties, so equal requests are equal strings
+     */
+    static String key(String league, String requestBody) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(league.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(requestBody.getBytes(StandardCharsets.UTF_8));
+            return new BigInteger(1, digest.digest()).toString(16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return the result when it is younger than the time to live, otherwise null
+     */
+    synchronized TradeResult get(String key, long now) {
+        Entry entry = entries.get(key);
+        if (entry != null && now - entry.createdAt < timeToLiveMillis) {
+            hits.incrementAndGet();
+            return entry.result;
+        }
+        if (entry != null) {
+            entries.remove(key);
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    synchronized void put(String key, TradeResult result, long now) {
+        entries.put(key, new Entry(result, now));
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    private static class Entry {
+        private final TradeResult result;
+        private final long createdAt;
+
+        Entry(TradeResult result, long createdAt) {
+            this.result = result;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package dev.tricht.lunaris.com.pathofexile;
+
+import dev.tricht.lunaris.com.pathofexile.response.TradeResult;
+import okhttp3.Call;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A trade search in flight, shared by every caller that asked for the same search. Its calls are
+ * cancelled once all callers have cancelled their future.
+ */
+class TradeFlight {
+
+    private final CompletableFuture<TradeResult> result = new CompletableFuture<>();
+    private final List<Call> calls = new ArrayList<>();
+    private int callers;
+    private boolean cancelled;
+
+    /**
+     * @return a future of the result for one caller, or null when the flight was already cancelled
+     */
+    synchronized CompletableFuture<TradeResult> join() {
+        if (cancelled) {
+            return null;
+        }
+        callers++;
+        CompletableFuture<TradeResult> future = result.copy();
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                leave();
+            }
+        });
+        return future;
+    }
+
+    synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return false when the flight was cancelled, the call is then cancelled as well
+     */
+    synchronized boolean add(Call call) {
+        if (cancelled) {
+            call.cancel();
+            return false;
+        }
+        calls.add(call);
+        return true;
+    }
+
+    void complete(TradeResult tradeResult, Throwable error) {
+        if (error != null) {
+            result.completeExceptionally(error);
+        } else {
+            result.complete(tradeResult);
+        }
+    }
+
+    private synchronized void leave() {
+        callers--;
+        if (callers == 0 && !result.isDone()) {
+            cancelled = true;
+            for (Call call : calls) {
+                call.cancel();
+            }
+            result.cancel(false);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package dev.tricht.lunaris.com.pathofexile.response;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import dev.tricht.lunaris.ninja.poe.CurrencyRates;
 import lombok.Data;
 import org.ocpsoft.prettytime.PrettyTime;
 
@@ -15,6 +17,18 @@ import java.util.List;
 public class ListingResponse {
     private List<Item> result;
 
+    public void convertPrices(CurrencyRates rates) {
+        if (result == null) {
+            return;
+        }
+        for (Item item : result) {
+            Price price = item.listing != null ? item.listing.price : null;
+            if (price != null) {
+                price.chaosValue = rates.toChaos(price.amount, price.currency);
+            }
+        }
+    }
+
     @Data
     @JsonIgnoreProperties(ignoreUnknown = true)
     public static class Item {
@@ -24,6 +38,16 @@ public class ListingResponse {
             return listing.getPrice();
         }
 
+        /**
+         * @return the price in chaos rounded to one decimal, or null when it could not be converted
+         */
+        public Double getChaosValue() {
+            if (listing.price == null || listing.price.chaosValue == null) {
+                return null;
+            }
+            return Math.round(listing.price.chaosValue * 10) / 10.0;
+        }
+
         public String getTime() {
             return new PrettyTime().format(listing.getTimeAgo());
         }
@@ -60,6 +84,9 @@ public class ListingResponse {
     public static class Price {
         private double amount;
         private String currency;
+        // Set after deserialization from the currency rates of the league
+        @JsonIgnore
+        private Double chaosValue;
     }
 
     @Data
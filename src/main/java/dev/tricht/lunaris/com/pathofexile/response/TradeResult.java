@@ -0,0 +1,14 @@
+package dev.tricht.lunaris.com.pathofexile.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class TradeResult {
+    private SearchResponse search;
+    // Empty when the search found nothing
+    private List<ListingResponse.Item> listings;
+}
@@ -2,7 +2,6 @@ package dev.tricht.lunaris.elements;
 
 import dev.tricht.lunaris.item.Item;
 import javafx.scene.Node;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
@@ -25,8 +24,8 @@ public class Icon implements Element {
         Node node;
 
         try {
-            Image image = new Image(item.getIconUrl(), true);
-            ImageView imageView = new ImageView(image);
+            ImageView imageView = new ImageView();
+            IconCache.get(item.getIconUrl(), size, imageView::setImage);
             imageView.setFitWidth(size);
             imageView.setFitHeight(size);
             imageView.setPreserveRatio(true);
@@ -0,0 +1,218 @@
+package dev.tricht.lunaris.elements;
+
+import dev.tricht.lunaris.data.DataDirectory;
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.*;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Decoded icons by url and size, backed by a copy of every icon on disk so a tooltip does not wait for
+ * the CDN.
+ */
+@Slf4j
+public class IconCache {
+
+    public static final String CHAOS_ORB_URL = "https://web.poecdn.com/image/Art/2DItems/Currency/CurrencyRerollRare.png?scale=1&w=1&h=1";
+
+    private static final int MAX_DECODED_ICONS = 128;
+    private static final int PREFETCH_LIMIT = 50;
+    private static final double PREFETCH_SIZE = 48;
+    // Only the most shown icons are remembered, that is more than enough to pick the ones to prefetch
+    private static final int MAX_USAGE_ENTRIES = 500;
+    private static final int USAGE_SAVE_DELAY_SECONDS = 60;
+    private static final String USAGE_FILE = "usage.properties";
+
+    private static final OkHttpClient client = new OkHttpClient();
+    private static final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Icon cache");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final LinkedHashMap<String, Image> decoded = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Image> eldest) {
+            return size() > MAX_DECODED_ICONS;
+        }
+    };
+    private static final Map<String, Integer> usage = new ConcurrentHashMap<>();
+    private static final AtomicBoolean usageSaveScheduled = new AtomicBoolean();
+    private static File directory;
+
+    /**
+     * Gives the icon decoded at the size to the consumer, at once when it is in memory or on disk, else on
+     * the JavaFX thread once it is downloaded. Nothing is given when the download fails.
+     */
+    public static void get(String url, double size, Consumer<Image> consumer) {
+        if (url == null) {
+            throw new IllegalArgumentException("No icon url");
+        }
+        usage.merge(url, 1, Integer::sum);
+        if (usageSaveScheduled.compareAndSet(false, true)) {
+            executor.schedule(IconCache::saveUsage, USAGE_SAVE_DELAY_SECONDS, TimeUnit.SECONDS);
+        }
+
+        String key = size + "@" + url;
+        synchronized (decoded) {
+            Image image = decoded.get(key);
+            if (image != null && !image.isError()) {
+                consumer.accept(image);
+                return;
+            }
+        }
+        if (getFile(url).exists()) {
+            Image image = decode(key, url, size);
+            consumer.accept(image);
+            return;
+        }
+        executor.execute(() -> {
+            byte[] bytes = download(url);
+            if (bytes == null) {
+                return;
+            }
+            Image image = new Image(new ByteArrayInputStream(bytes), size, size, true, true);
+            synchronized (decoded) {
+                decoded.put(key, image);
+            }
+            Platform.runLater(() -> consumer.accept(image));
+        });
+    }
+
+    /**
+     * Downloads and decodes the icons that were shown most often, so their tooltips are complete at once.
+     */
+    public static void prefetch() {
+        executor.execute(() -> {
+            getDirectory();
+            List<String> urls = new ArrayList<>();
+            urls.add(CHAOS_ORB_URL);
+            urls.addAll(usage.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                    .limit(PREFETCH_LIMIT)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList()));
+            for (String url : urls) {
+                String key = PREFETCH_SIZE + "@" + url;
+                synchronized (decoded) {
+                    if (decoded.containsKey(key)) {
+                        continue;
+                    }
+                }
+                if (getFile(url).exists() || download(url) != null) {
+                    decode(key, url, PREFETCH_SIZE);
+                }
+            }
+            saveUsage();
+        });
+    }
+
+    private static Image decode(String key, String url, double size) {
+        Image image = new Image(getFile(url).toURI().toString(), size, size, true, true, false);
+        synchronized (decoded) {
+            decoded.put(key, image);
+        }
+        return image;
+    }
+
+    /**
+     * Downloads the icon into the disk cache.
+     *
+     * @return the icon, or null when the download failed
+     */
+    private static byte[] download(String url) {
+        File file = getFile(url);
+        Request request = new Request.Builder().url(url).build();
+        try (Response response = client.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new IOException("Unexpected response " + response.code());
+            }
+            byte[] bytes = response.body().bytes();
+            File temporary = File.createTempFile("icon", ".tmp", file.getParentFile());
+            try {
+                Files.write(temporary.toPath(), bytes);
+                Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary.toPath());
+            }
+            return bytes;
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Failed downloading icon " + url, e);
+            return null;
+        }
+    }
+
+    private static synchronized File getDirectory() {
+        if (directory == null) {
+            directory = DataDirectory.getDirectory("icons");
+            loadUsage();
+        }
+        return directory;
+    }
+
+    private static File getFile(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(url.getBytes(StandardCharsets.UTF_8));
+            return new File(getDirectory(), new BigInteger(1, digest).toString(16) + ".png");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void loadUsage() {
+        File file = new File(directory, USAGE_FILE);
+        if (!file.exists()) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            log.error("Unable to read icon usage", e);
+            return;
+        }
+        for (String url : properties.stringPropertyNames()) {
+            try {
+                usage.merge(url, Integer.parseInt(properties.getProperty(url)), Integer::sum);
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring icon usage of " + url);
+            }
+        }
+    }
+
+    private static void saveUsage() {
+        usageSaveScheduled.set(false);
+        // Forgets the least shown icons, so the file does not grow with every icon ever shown
+        usage.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .skip(MAX_USAGE_ENTRIES)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList())
+                .forEach(usage::remove);
+        Properties properties = new Properties();
+        usage.forEach((url, count) -> properties.setProperty(url, Integer.toString(count)));
+        try (OutputStream out = new FileOutputStream(new File(getDirectory(), USAGE_FILE))) {
+            properties.store(out, null);
+        } catch (IOException e) {
+            log.error("Unable to save icon usage", e);
+        }
+    }
+}
@@ -19,7 +19,7 @@ public class Price implements Element {
     @Override
     public Node build() {
         Item chaos = new Item();
-        chaos.setIconUrl("https://web.poecdn.com/image/Art/2DItems/Currency/CurrencyRerollRare.png?scale=1&w=1&h=1");
+        chaos.setIconUrl(IconCache.CHAOS_ORB_URL);
 
         Icon icon = new Icon(chaos, 32);
 
@@ -2,7 +2,7 @@ package dev.tricht.lunaris.item;
 
 import dev.tricht.lunaris.ninja.poe.ItemResolver;
 import dev.tricht.lunaris.ninja.poe.Price;
-import dev.tricht.lunaris.ninja.poe.RemoteItem;
+import dev.tricht.lunaris.ninja.poe.PriceMatch;
 import lombok.extern.slf4j.Slf4j;
 
 import java.awt.*;
@@ -24,31 +24,30 @@ public class ItemGrabber {
     }
 
     public Item grab() {
-        String[] lines;
+        ItemParser parser;
         try {
-            lines = getItemText().split("\\r?\\n");
+            parser = new ItemParser(getItemText());
         } catch (IOException|UnsupportedFlavorException e) {
             log.error("Failed to grab item", e);
             return null;
         }
-        if (lines.length == 1) {
+        if (parser.getLineCount() == 1) {
             return null;
         }
 
         Item item = new Item();
         try {
-            ItemParser parser = new ItemParser(lines);
             item = parser.parse();
         } catch (Exception e) {
             log.error("Failed to parse item", e);
             return item;
         }
 
-        if (itemResolver.hasItem(item)) {
-            RemoteItem remoteItem = itemResolver.getItem(item);
-            item.setIconUrl(remoteItem.getIconUrl());
+        PriceMatch match = itemResolver.getItem(item);
+        if (match != null) {
+            item.setIconUrl(match.getIconUrl());
 
-            Price price = itemResolver.appraise(remoteItem);
+            Price price = itemResolver.appraise(match);
             item.setMeanPrice(price);
         }
 
@@ -6,25 +6,25 @@ import dev.tricht.lunaris.item.types.ItemType;
 import dev.tricht.lunaris.item.types.MapItem;
 import dev.tricht.lunaris.item.types.UnknownItem;
 
-import java.util.ArrayList;
-
 public class ItemParser {
 
-    private String[] lines;
+    private ItemText text;
+
+    public ItemParser(CharSequence text) {
+        this.text = new ItemText(text);
+    }
 
     public ItemParser(String[] lines) {
-        this.lines = lines;
+        this(String.join("\n", lines));
     }
 
     public Item parse() {
-        ArrayList<ArrayList<String>> parts = getParts();
-
-        if(parts.size() <= 1) {
+        if (text.getSectionCount() <= 1) {
             return new Item();
         }
 
-        NamePart namePart = new NamePart(parts.get(0));
-        StatsPart statsPart = new StatsPart(parts.get(1));
+        NamePart namePart = new NamePart(text);
+        StatsPart statsPart = new StatsPart(text);
 
         ItemType itemType = namePart.getItemType();
         if (itemType instanceof UnknownItem) {
@@ -41,9 +41,9 @@ public class ItemParser {
 
         //TODO: Prophecy
 
-        ItemProps itemProps = new ItemPropsParts(parts).getProps();
+        ItemProps itemProps = new ItemPropsParts(text).getProps();
 
-        AffixPart affixPart = new AffixPart(parts.get(new AffixPartIndexCalculator(namePart.getRarity(), itemType, itemProps, parts).getAffixIndex()));
+        AffixPart affixPart = new AffixPart(text.getLines(new AffixPartIndexCalculator(namePart.getRarity(), itemType, itemProps, text).getAffixIndex()));
 
         // TODO: Abyssal sockets
 
@@ -58,20 +58,7 @@ public class ItemParser {
         return item;
     }
 
-    public ArrayList<ArrayList<String>> getParts() {
-        ArrayList<ArrayList<String>> parts = new ArrayList<ArrayList<String>>();
-
-        ArrayList<String> currentPart = new ArrayList<String>();
-        for (String line : lines) {
-            if (line.equals("--------")) {
-                parts.add(currentPart);
-                currentPart = new ArrayList<String>();
-                continue;
-            }
-            currentPart.add(line);
-        }
-        parts.add(currentPart);
-
-        return parts;
+    public int getLineCount() {
+        return text.getTotalLineCount();
     }
 }
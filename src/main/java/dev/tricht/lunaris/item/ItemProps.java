@@ -2,13 +2,15 @@ package dev.tricht.lunaris.item;
 
 import lombok.Data;
 
+import java.util.EnumSet;
+
 @Data
 public class ItemProps {
     private boolean isCorrupted = false;
     private boolean isMirrored = false;
     private boolean isIdentified = true;
     private int itemLevel = 1;
-    private ItemInfluence influence = ItemInfluence.NONE;
+    private EnumSet<ItemInfluence> influences = EnumSet.noneOf(ItemInfluence.class);
     private String note;
 
     private int strength;
@@ -21,8 +23,19 @@ public class ItemProps {
 
     private int links = 0;
 
+    public void addInfluence(ItemInfluence influence) {
+        influences.add(influence);
+    }
+
+    /**
+     * @return the first influence of the item, or NONE
+     */
+    public ItemInfluence getInfluence() {
+        return influences.isEmpty() ? ItemInfluence.NONE : influences.iterator().next();
+    }
+
     public boolean isInfluenced() {
-        return influence != ItemInfluence.NONE;
+        return !influences.isEmpty();
     }
 
 }
@@ -4,26 +4,24 @@ import dev.tricht.lunaris.item.ItemProps;
 import dev.tricht.lunaris.item.ItemRarity;
 import dev.tricht.lunaris.item.types.*;
 
-import java.util.ArrayList;
-
 public class AffixPartIndexCalculator {
 
 
     private ItemRarity itemRarity;
-    private ArrayList<ArrayList<String>> parts;
+    private ItemText text;
     private ItemType itemType;
     private ItemProps itemProps;
 
 
-    public AffixPartIndexCalculator(ItemRarity rarity, ItemType type, ItemProps itemProps, ArrayList<ArrayList<String>> parts) {
+    public AffixPartIndexCalculator(ItemRarity rarity, ItemType type, ItemProps itemProps, ItemText text) {
         this.itemRarity = rarity;
         this.itemType = type;
         this.itemProps = itemProps;
-        this.parts = parts;
+        this.text = text;
     }
 
     public int getAffixIndex() {
-        return parts.size() - getNegativeOffset() - 1;
+        return text.getSectionCount() - getNegativeOffset() - 1;
     }
 
     private int getNegativeOffset() {
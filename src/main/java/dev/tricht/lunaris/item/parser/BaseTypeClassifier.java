@@ -0,0 +1,180 @@
+package dev.tricht.lunaris.item.parser;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.tricht.lunaris.item.types.*;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Classifies an item name using the base types in /data/base_types.json.
+ *
+ * Exact names are a single hash lookup, everything else is found with one pass of an Aho-Corasick
+ * automaton over the name. When multiple base types match, the longest one wins, so the table does
+ * not depend on ordering (e.g. "Ringmail" beats "Ring").
+ */
+@Slf4j
+public class BaseTypeClassifier {
+
+    private static final String MAGIC_SUFFIX = " of ";
+
+    private final List<Entry> entries;
+    private final Map<String, Entry> exactEntries = new HashMap<>();
+
+    // Automaton, node 0 is the root
+    private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+    private int[] failures;
+    private int[][] outputs;
+
+    BaseTypeClassifier(List<Entry> entries) {
+        this.entries = entries;
+        List<List<Integer>> nodeOutputs = new ArrayList<>();
+        transitions.add(new HashMap<>());
+        nodeOutputs.add(new ArrayList<>());
+
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (entry.getMatch() == Match.EXACT) {
+                exactEntries.putIfAbsent(entry.getName(), entry);
+                continue;
+            }
+            int node = 0;
+            for (char c : entry.getName().toCharArray()) {
+                Integer next = transitions.get(node).get(c);
+                if (next == null) {
+                    next = transitions.size();
+                    transitions.add(new HashMap<>());
+                    nodeOutputs.add(new ArrayList<>());
+                    transitions.get(node).put(c, next);
+                }
+                node = next;
+            }
+            nodeOutputs.get(node).add(i);
+        }
+
+        buildFailures(nodeOutputs);
+    }
+
+    public static BaseTypeClassifier load() {
+        List<Entry> entries = new ArrayList<>();
+        try {
+            entries = new ObjectMapper().readValue(
+                    BaseTypeClassifier.class.getResourceAsStream("/data/base_types.json"),
+                    new TypeReference<List<Entry>>(){}
+            );
+        } catch (IOException e) {
+            log.error("Failed to load base_types.json", e);
+        }
+        return new BaseTypeClassifier(entries);
+    }
+
+    private void buildFailures(List<List<Integer>> nodeOutputs) {
+        failures = new int[transitions.size()];
+        Deque<Integer> queue = new ArrayDeque<>(transitions.get(0).values());
+
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (Map.Entry<Character, Integer> transition : transitions.get(node).entrySet()) {
+                int child = transition.getValue();
+                int failure = failures[node];
+                while (failure != 0 && !transitions.get(failure).containsKey(transition.getKey())) {
+                    failure = failures[failure];
+                }
+                Integer target = transitions.get(failure).get(transition.getKey());
+                failures[child] = (target != null && target != child) ? target : 0;
+                // Breadth first, so the outputs of the failure node are already complete
+                nodeOutputs.get(child).addAll(nodeOutputs.get(failures[child]));
+                queue.add(child);
+            }
+        }
+
+        outputs = new int[nodeOutputs.size()][];
+        for (int i = 0; i < outputs.length; i++) {
+            outputs[i] = nodeOutputs.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    public ItemType classify(String name) {
+        Entry exact = exactEntries.get(name);
+        if (exact != null) {
+            return exact.createItemType();
+        }
+
+        Entry best = null;
+        int bestIndex = -1;
+        int node = 0;
+        for (int position = 0; position < name.length(); position++) {
+            char c = name.charAt(position);
+            Integer next = transitions.get(node).get(c);
+            while (next == null && node != 0) {
+                node = failures[node];
+                next = transitions.get(node).get(c);
+            }
+            node = next == null ? 0 : next;
+
+            for (int index : outputs[node]) {
+                Entry entry = entries.get(index);
+                int end = position + 1;
+                if (!entry.matches(name, end - entry.getName().length(), end)) {
+                    continue;
+                }
+                if (best == null || entry.getName().length() > best.getName().length()
+                        || (entry.getName().length() == best.getName().length() && index < bestIndex)) {
+                    best = entry;
+                    bestIndex = index;
+                }
+            }
+        }
+
+        return best == null ? new UnknownItem() : best.createItemType();
+    }
+
+    enum Match {
+        @JsonProperty("exact") EXACT,
+        @JsonProperty("prefix") PREFIX,
+        // Also matches magic items, e.g. "Leather Belt of the Whale"
+        @JsonProperty("suffix") SUFFIX,
+        @JsonProperty("contains") CONTAINS
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class Entry {
+        private String name;
+        private Match match;
+        private String type;
+
+        boolean matches(String itemName, int start, int end) {
+            switch (match) {
+                case PREFIX:
+                    return start == 0;
+                case SUFFIX:
+                    return end == itemName.length() || itemName.startsWith(MAGIC_SUFFIX, end);
+                case CONTAINS:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        ItemType createItemType() {
+            switch (type) {
+                case "FRAGMENT":
+                    return new FragmentItem();
+                case "SCARAB":
+                    return new ScarabItem();
+                case "MAP":
+                    return new MapItem();
+                case "UNKNOWN":
+                    return new UnknownItem();
+                default:
+                    return new EquipmentItem(EquipmentSlot.valueOf(type));
+            }
+        }
+    }
+}
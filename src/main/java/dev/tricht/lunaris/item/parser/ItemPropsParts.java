@@ -4,121 +4,137 @@ import dev.tricht.lunaris.item.ItemInfluence;
 import dev.tricht.lunaris.item.ItemProps;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.ArrayList;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Arrays;
 
 @Slf4j
 public class ItemPropsParts {
 
-    private ArrayList<ArrayList<String>> parts;
+    // Properties indexed by the first character of their label
+    private static final Property[][] properties = new Property[128][];
 
-    private Pattern notePattern = Pattern.compile("Note:(.*)");
-    private Pattern itemLevelPattern = Pattern.compile("Item Level: (.*)");
-    private Pattern qualityPattern = Pattern.compile("Quality: \\+([0-9]+).*");
-    private Pattern dexPattern = Pattern.compile("Dex: ([0-9]+).*");
-    private Pattern intPattern = Pattern.compile("Int: ([0-9]+).*");
-    private Pattern strPattern = Pattern.compile("Str: ([0-9]+).*");
-    private Pattern socketsPattern = Pattern.compile("Sockets:(.*)");
-    private Pattern stackSizePattern = Pattern.compile("Stack Size:(.*)");
+    static {
+        register(Property.exact("Corrupted", (props, text, section, line) -> props.setCorrupted(true)));
+        register(Property.exact("Mirrored", (props, text, section, line) -> props.setMirrored(true)));
+        register(Property.exact("Unidentified", (props, text, section, line) -> props.setIdentified(false)));
+        registerInfluence("Elder Item", ItemInfluence.ELDER);
+        registerInfluence("Shaper Item", ItemInfluence.SHAPER);
+        registerInfluence("Synthesised Item", ItemInfluence.SYNTHESISED);
+        registerInfluence("Fractured Item", ItemInfluence.FRACTURED);
+        registerInfluence("Crusader Item", ItemInfluence.CRUSADER);
+        registerInfluence("Hunter Item", ItemInfluence.HUNTER);
+        registerInfluence("Warlord Item", ItemInfluence.WARLORD);
+        registerInfluence("Redeemer Item", ItemInfluence.REDEEMER);
+        register(Property.label("Note:", (props, text, section, line) -> props.setNote(text.getLine(section, line))));
+        register(Property.number("Str: ", ItemProps::setStrength));
+        register(Property.number("Dex: ", ItemProps::setDexterity));
+        register(Property.number("Int: ", ItemProps::setIntelligence));
+        register(Property.number("Quality: +", ItemProps::setQuality));
+        register(Property.number("Item Level: ", ItemProps::setItemLevel));
+        register(Property.number("Stack Size: ", ItemProps::setStackSize));
+        register(Property.label("Sockets: ", (props, text, section, line) -> props.setLinks(getLinks(text, section, line))));
+    }
+
+    private ItemText text;
+
+    public ItemPropsParts(ItemText text) {
+        this.text = text;
+    }
 
-    public ItemPropsParts(ArrayList<ArrayList<String>> parts) {
-        this.parts = parts;
+    private static void register(Property property) {
+        char first = property.label.charAt(0);
+        Property[] existing = properties[first];
+        if (existing == null) {
+            properties[first] = new Property[]{property};
+            return;
+        }
+        Property[] extended = Arrays.copyOf(existing, existing.length + 1);
+        extended[existing.length] = property;
+        properties[first] = extended;
+    }
+
+    private static void registerInfluence(String label, ItemInfluence influence) {
+        register(Property.exact(label, (props, text, section, line) -> props.addInfluence(influence)));
     }
 
     public ItemProps getProps() {
         ItemProps props = new ItemProps();
 
-        //TODO: Items can have multiple influence types
-        for (ArrayList<String> part : parts) {
-            for (String line : part) {
-                if (line.equals("Corrupted")) {
-                    props.setCorrupted(true);
-                    continue;
-                }
-                if (line.equals("Mirrored")) {
-                    props.setMirrored(true);
-                    continue;
-                }
-                if (line.equals("Unidentified")) {
-                    props.setIdentified(false);
-                    continue;
-                }
-                if (line.equals("Elder Item")) {
-                    props.setInfluence(ItemInfluence.ELDER);
-                    continue;
-                }
-                if (line.equals("Shaper Item")) {
-                    props.setInfluence(ItemInfluence.SHAPER);
-                    continue;
-                }
-                if (line.equals("Synthesised Item")) {
-                    props.setInfluence(ItemInfluence.SYNTHESISED);
-                    continue;
-                }
-                if (line.equals("Fractured Item")) {
-                    props.setInfluence(ItemInfluence.FRACTURED);
-                    continue;
-                }
-                if (line.equals("Crusader Item")) {
-                    props.setInfluence(ItemInfluence.CRUSADER);
-                    continue;
-                }
-                if (line.equals("Hunter Item")) {
-                    props.setInfluence(ItemInfluence.HUNTER);
-                    continue;
-                }
-                if (line.equals("Warlord Item")) {
-                    props.setInfluence(ItemInfluence.WARLORD);
-                    continue;
-                }
-                if (line.equals("Redeemer Item")) {
-                    props.setInfluence(ItemInfluence.REDEEMER);
-                    continue;
-                }
-                if (notePattern.matcher(line).matches()) {
-                    props.setNote(line);
-                    continue;
-                }
-                Matcher strMatcher = strPattern.matcher(line);
-                if (strMatcher.matches()) {
-                    props.setStrength(Integer.parseInt(strMatcher.group(1)));
-                    continue;
-                }
-                Matcher dexMatcher = dexPattern.matcher(line);
-                if (dexMatcher.matches()) {
-                    props.setDexterity(Integer.parseInt(dexMatcher.group(1)));
-                    continue;
-                }
-                Matcher intMatcher = intPattern.matcher(line);
-                if (intMatcher.matches()) {
-                    props.setIntelligence(Integer.parseInt(intMatcher.group(1)));
-                    continue;
-                }
-                Matcher qualityMatcher = qualityPattern.matcher(line);
-                if (qualityMatcher.matches()) {
-                    props.setQuality(Integer.parseInt(qualityMatcher.group(1)));
+        for (int section = 0; section < text.getSectionCount(); section++) {
+            for (int line = 0; line < text.getLineCount(section); line++) {
+                if (text.getLineLength(section, line) == 0) {
                     continue;
                 }
-                if (itemLevelPattern.matcher(line).matches()) {
-                    props.setItemLevel(Integer.parseInt(line.replace("Item Level: ", "")));
+                char first = text.getText().charAt(text.getLineStart(section, line));
+                if (first >= properties.length || properties[first] == null) {
                     continue;
                 }
-                if (socketsPattern.matcher(line).matches()) {
-                    String cleanSockets = line.replace("Sockets: ", "").replace("-", "").trim();
-                    long spaces = cleanSockets.chars().filter(ch -> ch == ' ').count();
-                    props.setLinks(cleanSockets.replace(" ", "").length() - (int) spaces);
-                }
-
-                if (stackSizePattern.matcher(line).matches()) {
-                    int stackSize = Integer.parseInt(line.replace("Stack Size: ", "")
-                            .replace(".", "")
-                            .replace(",", "")
-                            .trim().split("/")[0]);
-                    props.setStackSize(stackSize);
+                for (Property property : properties[first]) {
+                    if (property.matches(text, section, line)) {
+                        property.handler.apply(props, text, section, line);
+                        break;
+                    }
                 }
             }
         }
         return props;
     }
+
+    /**
+     * Size of the largest group of linked sockets, e.g. "B B-B-B-G-G" has 5 links.
+     */
+    private static int getLinks(ItemText text, int section, int line) {
+        int links = 0;
+        int group = 0;
+        int end = text.getLineEnd(section, line);
+        for (int i = text.getLineStart(section, line) + "Sockets: ".length(); i < end; i++) {
+            char c = text.getText().charAt(i);
+            if (c == ' ') {
+                group = 0;
+            } else if (c != '-') {
+                links = Math.max(links, ++group);
+            }
+        }
+        return links;
+    }
+
+    private interface Handler {
+        void apply(ItemProps props, ItemText text, int section, int line);
+    }
+
+    private interface NumberSetter {
+        void set(ItemProps props, int value);
+    }
+
+    private static class Property {
+        private final String label;
+        private final boolean exact;
+        private final Handler handler;
+
+        private Property(String label, boolean exact, Handler handler) {
+            this.label = label;
+            this.exact = exact;
+            this.handler = handler;
+        }
+
+        static Property exact(String line, Handler handler) {
+            return new Property(line, true, handler);
+        }
+
+        static Property label(String label, Handler handler) {
+            return new Property(label, false, handler);
+        }
+
+        static Property number(String label, NumberSetter setter) {
+            return label(label, (props, text, section, line) -> {
+                int value = text.parseInt(section, line, label.length());
+                if (value >= 0) {
+                    setter.set(props, value);
+                }
+            });
+        }
+
+        boolean matches(ItemText text, int section, int line) {
+            return exact ? text.lineEquals(section, line, label) : text.lineStartsWith(section, line, label);
+        }
+    }
 }
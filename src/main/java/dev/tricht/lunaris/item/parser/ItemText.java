@@ -0,0 +1,152 @@
+package dev.tricht.lunaris.item.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Clipboard text of an item, tokenized in a single pass into sections (separated by "--------")
+ * and lines. Only offsets into the original text are stored, lines are only copied when asked for.
+ */
+public class ItemText {
+
+    private static final String SEPARATOR = "--------";
+
+    private final String text;
+
+    private int[] lineStarts = new int[32];
+    private int[] lineEnds = new int[32];
+    private int lineCount = 0;
+
+    // Index of the first line of each section, plus one trailing entry for the end
+    private int[] sectionStarts = new int[16];
+    private int sectionCount = 0;
+
+    public ItemText(CharSequence text) {
+        this.text = text.toString();
+        tokenize();
+    }
+
+    private void tokenize() {
+        int length = text.length();
+
+        // Trailing empty lines are dropped, like String.split does
+        while (length > 0 && (text.charAt(length - 1) == '\n' || text.charAt(length - 1) == '\r')) {
+            length--;
+        }
+
+        startSection();
+        int start = 0;
+        while (start <= length) {
+            int end = text.indexOf('\n', start);
+            if (end == -1 || end > length) {
+                end = length;
+            }
+            int next = end + 1;
+            if (end > start && text.charAt(end - 1) == '\r') {
+                end--;
+            }
+            if (end - start == SEPARATOR.length() && text.startsWith(SEPARATOR, start)) {
+                startSection();
+            } else {
+                addLine(start, end);
+            }
+            start = next;
+        }
+        sectionStarts[sectionCount] = lineCount;
+    }
+
+    private void startSection() {
+        if (sectionCount + 1 >= sectionStarts.length) {
+            sectionStarts = Arrays.copyOf(sectionStarts, sectionStarts.length * 2);
+        }
+        sectionStarts[sectionCount++] = lineCount;
+    }
+
+    private void addLine(int start, int end) {
+        if (lineCount == lineStarts.length) {
+            lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+            lineEnds = Arrays.copyOf(lineEnds, lineCount * 2);
+        }
+        lineStarts[lineCount] = start;
+        lineEnds[lineCount] = end;
+        lineCount++;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public int getSectionCount() {
+        return sectionCount;
+    }
+
+    public int getTotalLineCount() {
+        return lineCount;
+    }
+
+    public int getLineCount(int section) {
+        return sectionStarts[section + 1] - sectionStarts[section];
+    }
+
+    public int getLineStart(int section, int line) {
+        return lineStarts[sectionStarts[section] + line];
+    }
+
+    public int getLineEnd(int section, int line) {
+        return lineEnds[sectionStarts[section] + line];
+    }
+
+    public int getLineLength(int section, int line) {
+        return getLineEnd(section, line) - getLineStart(section, line);
+    }
+
+    public String getLine(int section, int line) {
+        return text.substring(getLineStart(section, line), getLineEnd(section, line));
+    }
+
+    public ArrayList<String> getLines(int section) {
+        int count = getLineCount(section);
+        ArrayList<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lines.add(getLine(section, i));
+        }
+        return lines;
+    }
+
+    public boolean lineEquals(int section, int line, String value) {
+        return getLineLength(section, line) == value.length()
+                && text.startsWith(value, getLineStart(section, line));
+    }
+
+    public boolean lineStartsWith(int section, int line, String prefix) {
+        return getLineLength(section, line) >= prefix.length()
+                && text.startsWith(prefix, getLineStart(section, line));
+    }
+
+    /**
+     * Parses the first number found at or after {@code offset} in the line, ignoring thousand
+     * separators. Returns -1 when the line has no digits there.
+     */
+    public int parseInt(int section, int line, int offset) {
+        int position = getLineStart(section, line) + offset;
+        int end = getLineEnd(section, line);
+        while (position < end && !Character.isDigit(text.charAt(position))) {
+            position++;
+        }
+        if (position == end) {
+            return -1;
+        }
+        int value = 0;
+        while (position < end) {
+            char c = text.charAt(position++);
+            if (c == ',' || c == '.') {
+                continue;
+            }
+            if (!Character.isDigit(c)) {
+                break;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -5,19 +5,18 @@ import dev.tricht.lunaris.item.types.UnknownItem;
 import dev.tricht.lunaris.item.types.WeaponItem;
 import dev.tricht.lunaris.item.types.WeaponType;
 
-import java.util.ArrayList;
-
 public class StatsPart {
 
+    private static final int SECTION = 1;
 
-    private ArrayList<String> lines;
+    private ItemText text;
 
-    public StatsPart(ArrayList<String> lines) {
-        this.lines = lines;
+    public StatsPart(ItemText text) {
+        this.text = text;
     }
 
     public ItemType getWeaponType() {
-        String name = lines.get(0);
+        String name = text.getLine(SECTION, 0);
 
         if (name.equals("One Handed Axe")) {
             return new WeaponItem(WeaponType.AXE_ONE_HANDED);
@@ -66,14 +65,10 @@ public class StatsPart {
     }
 
     public int getMapTier() {
-        String name = lines.get(0);
-
-        return Integer.parseInt(name.split("Map Tier: ")[1]);
+        return text.parseInt(SECTION, 0, "Map Tier: ".length());
     }
 
     public int getGemLevel() {
-        String level = lines.get(1);
-
-        return Integer.parseInt(level.split(" ")[1]);
+        return text.parseInt(SECTION, 1, "Level: ".length());
     }
 }
@@ -1,12 +1,13 @@
 package dev.tricht.lunaris.listeners;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.tricht.lunaris.WindowsAPI;
 import dev.tricht.lunaris.com.pathofexile.NotYetImplementedException;
 import dev.tricht.lunaris.com.pathofexile.PathOfExileAPI;
-import dev.tricht.lunaris.com.pathofexile.RateLimitMostLikelyException;
+import dev.tricht.lunaris.com.pathofexile.RateLimitException;
+import dev.tricht.lunaris.com.pathofexile.StatsUnavailableException;
 import dev.tricht.lunaris.com.pathofexile.response.ListingResponse;
 import dev.tricht.lunaris.com.pathofexile.response.SearchResponse;
+import dev.tricht.lunaris.com.pathofexile.response.TradeResult;
 import dev.tricht.lunaris.elements.Label;
 import dev.tricht.lunaris.item.Item;
 import dev.tricht.lunaris.item.ItemGrabber;
@@ -18,9 +19,6 @@ import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.PropertyValueFactory;
 import lombok.extern.slf4j.Slf4j;
-import okhttp3.Call;
-import okhttp3.Callback;
-import okhttp3.Response;
 import org.jetbrains.annotations.NotNull;
 import org.jnativehook.keyboard.NativeKeyEvent;
 import org.jnativehook.mouse.NativeMouseEvent;
@@ -28,9 +26,14 @@ import org.jnativehook.mouse.NativeMouseInputListener;
 import org.ocpsoft.prettytime.PrettyTime;
 
 import java.awt.*;
-import java.io.IOException;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 
 @Slf4j
 public class ItemPriceListener implements GameListener, NativeMouseInputListener {
@@ -39,14 +42,15 @@ public class ItemPriceListener implements GameListener, NativeMouseInputListener
     private Point position;
     private PathOfExileAPI pathOfExileAPI;
     private PrettyTime prettyTime;
-    private ObjectMapper objectMapper;
     private SearchResponse currentSearch = null;
+    // Increased for every price check, results of an older check are dropped
+    private final AtomicLong generation = new AtomicLong();
+    private CompletableFuture<TradeResult> currentCheck = null;
 
     public ItemPriceListener(ItemGrabber itemGrabber, PathOfExileAPI pathOfExileAPI) {
         this.itemGrabber = itemGrabber;
         this.pathOfExileAPI = pathOfExileAPI;
         this.prettyTime = new PrettyTime();
-        this.objectMapper = new ObjectMapper();
     }
 
     @Override
@@ -71,24 +75,15 @@ public class ItemPriceListener implements GameListener, NativeMouseInputListener
                 }
                 log.debug("Got item, translating to pathofexile.com");
                 try {
-                    this.pathOfExileAPI.find(item, new Callback() {
-                        @Override
-                        public void onFailure(@NotNull Call call, @NotNull IOException e) {
-                            log.debug("Failed to search", e);
+                    this.pathOfExileAPI.search(item).whenComplete((searchResponse, error) -> {
+                        if (error != null) {
+                            log.debug("Failed to search", error);
+                            return;
                         }
-
-                        @Override
-                        public void onResponse(@NotNull Call call, @NotNull Response response) throws IOException {
-                            try {
-                                SearchResponse searchResponse = objectMapper.readValue(response.body().string(), SearchResponse.class);
-                                if (searchResponse != null && searchResponse.getId() != null) {
-                                    WindowsAPI.browse(searchResponse.getUrl(pathOfExileAPI.getLeague()));
-                                }
-                                log.debug(searchResponse.toString());
-                            } catch (IOException e) {
-                                log.debug("Failed to parse response", e);
-                            }
+                        if (searchResponse != null && searchResponse.getId() != null) {
+                            WindowsAPI.browse(searchResponse.getUrl(pathOfExileAPI.getLeague()));
                         }
+                        log.debug(String.valueOf(searchResponse));
                     });
                 } catch (NotYetImplementedException e) {
                     log.error("Item not yet implemented", e);
@@ -101,6 +96,7 @@ public class ItemPriceListener implements GameListener, NativeMouseInputListener
     }
 
     private void displayItemTooltip() {
+        long token = cancelCurrentCheck();
         Item item = this.itemGrabber.grab();
         if (item == null || !item.hasPrice()) {
             return;
@@ -112,13 +108,34 @@ public class ItemPriceListener implements GameListener, NativeMouseInputListener
         TooltipCreator.create(position, elements);
 
         try {
-            this.pathOfExileAPI.find(item, new TradeSearchCallback(item));
+            CompletableFuture<TradeResult> check = this.pathOfExileAPI.find(item);
+            synchronized (this) {
+                if (token != generation.get()) {
+                    check.cancel(false);
+                    return;
+                }
+                currentCheck = check;
+            }
+            check.whenComplete(new TradeSearchCallback(item, token));
         } catch (NotYetImplementedException e) {
             log.error("Item not yet implemented", e);
             displayError(item, "This item has not been implemented yet");
         }
     }
 
+    /**
+     * Cancels the outstanding price check, so its calls stop and its result is not shown.
+     *
+     * @return the token of the next check
+     */
+    private synchronized long cancelCurrentCheck() {
+        if (currentCheck != null) {
+            currentCheck.cancel(false);
+            currentCheck = null;
+        }
+        return generation.incrementAndGet();
+    }
+
     @NotNull
     private Map<Element, int[]> createBaseItemTooltip(Item item) {
         Map<Element, int[]> elements;
@@ -136,71 +153,108 @@ public class ItemPriceListener implements GameListener, NativeMouseInputListener
         elements.put(new Source("poe.ninja"), new int[]{1, elements.size() - 1});
     }
 
-    class TradeSearchCallback implements Callback {
+    class TradeSearchCallback implements BiConsumer<TradeResult, Throwable> {
 
         private Item item;
+        private long token;
 
-        public TradeSearchCallback(Item item) {
+        public TradeSearchCallback(Item item, long token) {
             this.item = item;
+            this.token = token;
         }
 
         @Override
-        public void onFailure(@NotNull Call call, @NotNull IOException e) {
+        public void accept(TradeResult result, Throwable error) {
+            if (token != generation.get() || error instanceof CancellationException) {
+                log.debug("Dropping the result of a superseded price check");
+                return;
+            }
+            if (error != null) {
+                onFailure(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                return;
+            }
+            onResult(result);
+        }
+
+        private void onFailure(Throwable e) {
+            if (e instanceof RateLimitException) {
+                displayError(item, String.format("Too many requests to pathofexile.com\nPlease wait %d seconds",
+                        ((RateLimitException) e).getWaitSeconds()));
+                return;
+            }
+            if (e instanceof StatsUnavailableException) {
+                displayError(item, "Still downloading the trade stats\nPlease try again in a moment");
+                return;
+            }
+            log.debug("Failed to load from pathofexile.com", e);
             displayError(item, "Failed to load from pathofexile.com");
         }
 
-        @Override
-        public void onResponse(@NotNull Call call, @NotNull Response response) throws IOException {
-            try {
-                SearchResponse searchResponse = objectMapper.readValue(response.body().string(), SearchResponse.class);
-                if (searchResponse != null && searchResponse.getId() != null && !searchResponse.getResult().isEmpty()) {
-                    java.util.List<ListingResponse.Item> items = null;
-                    try {
-                        items = pathOfExileAPI.getItemListings(searchResponse);
-                    } catch (RateLimitMostLikelyException e) {
-                        log.debug("Error while getting item listing", e);
-                    }
-                    if (items != null) {
-                        Map<Element, int[]> elements = createBaseItemTooltip(item);
-
-                        TableView table = new XTableView();
-                        table.setFixedCellSize(25);
-                        table.prefHeightProperty().bind(table.fixedCellSizeProperty().multiply(Bindings.size(table.getItems())));
-                        table.minHeightProperty().bind(table.prefHeightProperty());
-                        table.maxHeightProperty().bind(table.prefHeightProperty());
-
-                        TableColumn priceColumn = new TableColumn<String, ListingResponse.Item>("price");
-                        priceColumn.setCellValueFactory(new PropertyValueFactory<>("price"));
-
-                        TableColumn accountColumn = new TableColumn<String, ListingResponse.Item>("account");
-                        accountColumn.setCellValueFactory(new PropertyValueFactory<>("account"));
-
-
-                        TableColumn timeColumn = new TableColumn<String, ListingResponse.Item>("time");
-                        timeColumn.setCellValueFactory(new PropertyValueFactory<>("time"));
-
-                        table.getColumns().add(priceColumn);
-                        table.getColumns().add(accountColumn);
-                        table.getColumns().add(timeColumn);
-
-
-                        for (ListingResponse.Item listingItem : items) {
-                            table.getItems().add(listingItem);
-                        }
-                        elements.put(new UIWrap(table, 0, 0), new int[]{1, elements.size() - 1});
-                        elements.put(new Label("Press alt + q to open in your browser"), new int[]{1, elements.size() - 1});
-                        elements.put(new Source("pathofexile.com"), new int[]{1, elements.size() - 1});
-                        addPoeNinjaPrice(item, elements);
-                        ItemPriceListener.this.currentSearch = searchResponse;
-                        TooltipCreator.create(position, elements);
-                    }
-                } else {
-                    displayError(item, "pathofexile.com gave no results");
-                }
-            } catch (IOException e) {
-                displayError(item, "Too many requests to pathofexile.com\nPlease wait a few seconds");
+        private void onResult(TradeResult result) {
+            SearchResponse searchResponse = result.getSearch();
+            java.util.List<ListingResponse.Item> items = result.getListings();
+            if (searchResponse.getId() == null || items.isEmpty()) {
+                displayError(item, "pathofexile.com gave no results");
+                return;
             }
+            Map<Element, int[]> elements = createBaseItemTooltip(item);
+
+            TableView table = new XTableView();
+            table.setFixedCellSize(25);
+            table.prefHeightProperty().bind(table.fixedCellSizeProperty().multiply(Bindings.size(table.getItems())));
+            table.minHeightProperty().bind(table.prefHeightProperty());
+            table.maxHeightProperty().bind(table.prefHeightProperty());
+
+            TableColumn priceColumn = new TableColumn<String, ListingResponse.Item>("price");
+            priceColumn.setCellValueFactory(new PropertyValueFactory<>("price"));
+
+            TableColumn chaosColumn = new TableColumn<Double, ListingResponse.Item>("chaos");
+            chaosColumn.setCellValueFactory(new PropertyValueFactory<>("chaosValue"));
+
+            TableColumn accountColumn = new TableColumn<String, ListingResponse.Item>("account");
+            accountColumn.setCellValueFactory(new PropertyValueFactory<>("account"));
+
+
+            TableColumn timeColumn = new TableColumn<String, ListingResponse.Item>("time");
+            timeColumn.setCellValueFactory(new PropertyValueFactory<>("time"));
+
+            table.getColumns().add(priceColumn);
+            table.getColumns().add(chaosColumn);
+            table.getColumns().add(accountColumn);
+            table.getColumns().add(timeColumn);
+
+
+            for (ListingResponse.Item listingItem : items) {
+                table.getItems().add(listingItem);
+            }
+            elements.put(new UIWrap(table, 0, 0), new int[]{1, elements.size() - 1});
+            String summary = summarizeListings(items);
+            if (summary != null) {
+                elements.put(new Label(summary), new int[]{1, elements.size() - 1});
+            }
+            elements.put(new Label("Press alt + q to open in your browser"), new int[]{1, elements.size() - 1});
+            elements.put(new Source("pathofexile.com"), new int[]{1, elements.size() - 1});
+            addPoeNinjaPrice(item, elements);
+            ItemPriceListener.this.currentSearch = searchResponse;
+            TooltipCreator.create(position, elements);
+        }
+    }
+
+    private static String summarizeListings(java.util.List<ListingResponse.Item> items) {
+        double[] chaosValues = items.stream()
+                .map(ListingResponse.Item::getChaosValue)
+                .filter(Objects::nonNull)
+                .mapToDouble(Double::doubleValue)
+                .sorted()
+                .toArray();
+        if (chaosValues.length == 0) {
+            return null;
         }
+        int middle = chaosValues.length / 2;
+        double median = chaosValues.length % 2 == 1
+                ? chaosValues[middle]
+                : (chaosValues[middle - 1] + chaosValues[middle]) / 2;
+        return String.format("Median of %d listings: ~%s chaos", chaosValues.length, Math.round(median * 10) / 10.0);
     }
 
     private void displayError(Item item, String errorMessage) {
@@ -226,6 +280,7 @@ public class ItemPriceListener implements GameListener, NativeMouseInputListener
     @Override
     public void nativeMousePressed(NativeMouseEvent event) {
         currentSearch = null;
+        cancelCurrentCheck();
     }
 
     @Override
@@ -0,0 +1,63 @@
+package dev.tricht.lunaris.ninja.poe;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.util.Properties;
+
+/**
+ * Validators of a downloaded poe.ninja category, stored as &lt;type&gt;.meta next to &lt;type&gt;.json.
+ */
+@Slf4j
+@Data
+class CategoryMetadata {
+
+    private static final String ETAG = "etag";
+    private static final String LAST_MODIFIED = "lastModified";
+    private static final String FETCHED_AT = "fetchedAt";
+
+    private String etag;
+    private String lastModified;
+    private long fetchedAt;
+
+    static CategoryMetadata load(File file) {
+        CategoryMetadata metadata = new CategoryMetadata();
+        if (!file.exists()) {
+            return metadata;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            log.error(String.format("Unable to read %s", file.getAbsolutePath()), e);
+            return metadata;
+        }
+        metadata.etag = properties.getProperty(ETAG);
+        metadata.lastModified = properties.getProperty(LAST_MODIFIED);
+        try {
+            metadata.fetchedAt = Long.parseLong(properties.getProperty(FETCHED_AT, "0"));
+        } catch (NumberFormatException e) {
+            metadata.fetchedAt = 0;
+        }
+        return metadata;
+    }
+
+    void save(File file) throws IOException {
+        Properties properties = new Properties();
+        if (etag != null) {
+            properties.setProperty(ETAG, etag);
+        }
+        if (lastModified != null) {
+            properties.setProperty(LAST_MODIFIED, lastModified);
+        }
+        properties.setProperty(FETCHED_AT, Long.toString(fetchedAt));
+        try (OutputStream out = new FileOutputStream(file)) {
+            properties.store(out, null);
+        }
+    }
+
+    boolean isFresh(long timeToLive, long now) {
+        return now - fetchedAt < timeToLive;
+    }
+}
@@ -1,14 +1,9 @@
 package dev.tricht.lunaris.ninja.poe;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
 @Data
-@JsonIgnoreProperties(ignoreUnknown = true)
 class CurrencyDetail {
-    @JsonProperty("name")
     private String name;
-    @JsonProperty("icon")
     private String iconUrl;
 }
@@ -0,0 +1,83 @@
+package dev.tricht.lunaris.ninja.poe;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chaos value of the currencies pathofexile.com/trade lists prices in, taken from the poe.ninja
+ * Currency and Fragment prices of a league.
+ */
+public class CurrencyRates {
+
+    // Trade currency code to poe.ninja name
+    private static final Map<String, String> CURRENCY_NAMES = Map.ofEntries(
+            Map.entry("alt", "Orb of Alteration"),
+            Map.entry("fuse", "Orb of Fusing"),
+            Map.entry("alch", "Orb of Alchemy"),
+            Map.entry("gcp", "Gemcutter's Prism"),
+            Map.entry("exa", "Exalted Orb"),
+            Map.entry("exalted", "Exalted Orb"),
+            Map.entry("chrom", "Chromatic Orb"),
+            Map.entry("jew", "Jeweller's Orb"),
+            Map.entry("chance", "Orb of Chance"),
+            Map.entry("chisel", "Cartographer's Chisel"),
+            Map.entry("scour", "Orb of Scouring"),
+            Map.entry("blessed", "Blessed Orb"),
+            Map.entry("regret", "Orb of Regret"),
+            Map.entry("regal", "Regal Orb"),
+            Map.entry("divine", "Divine Orb"),
+            Map.entry("vaal", "Vaal Orb"),
+            Map.entry("wisdom", "Scroll of Wisdom"),
+            Map.entry("portal", "Portal Scroll"),
+            Map.entry("silver", "Silver Coin"),
+            Map.entry("mir", "Mirror of Kalandra"),
+            Map.entry("annul", "Orb of Annulment"),
+            Map.entry("orb-of-binding", "Orb of Binding"),
+            Map.entry("orb-of-horizons", "Orb of Horizons"),
+            Map.entry("harbingers-orb", "Harbinger's Orb"),
+            Map.entry("ancient-orb", "Ancient Orb"),
+            Map.entry("engineers-orb", "Engineer's Orb"),
+            Map.entry("p", "Perandus Coin"),
+            Map.entry("splinter-xoph", "Splinter of Xoph"),
+            Map.entry("splinter-tul", "Splinter of Tul"),
+            Map.entry("splinter-esh", "Splinter of Esh"),
+            Map.entry("splinter-uul", "Splinter of Uul-Netol"),
+            Map.entry("splinter-chayula", "Splinter of Chayula")
+    );
+
+    private final Map<String, Double> chaosValues;
+
+    /**
+     * @param chaosValues chaos value by trade currency code
+     */
+    public CurrencyRates(Map<String, Double> chaosValues) {
+        this.chaosValues = chaosValues;
+    }
+
+    /**
+     * @param tables the Currency and Fragment prices, a currency is taken from the first table that has it
+     */
+    static CurrencyRates of(List<PriceTable> tables) {
+        Map<String, Double> chaosValues = new HashMap<>();
+        chaosValues.put("chaos", 1.0);
+        for (Map.Entry<String, String> currency : CURRENCY_NAMES.entrySet()) {
+            for (PriceTable table : tables) {
+                int group = table.getGroup(currency.getValue());
+                if (group != -1 && table.getPrice(table.getGroupStart(group)) > 0) {
+                    chaosValues.put(currency.getKey(), table.getPrice(table.getGroupStart(group)));
+                    break;
+                }
+            }
+        }
+        return new CurrencyRates(chaosValues);
+    }
+
+    /**
+     * @return the amount in chaos, or null when the currency is unknown
+     */
+    public Double toChaos(double amount, String currency) {
+        Double chaosValue = chaosValues.get(currency);
+        return chaosValue == null ? null : amount * chaosValue;
+    }
+}
@@ -0,0 +1,190 @@
+package dev.tricht.lunaris.ninja.poe;
+
+import java.util.*;
+
+/**
+ * Finds the poe.ninja name closest to a name that has no exact match, e.g. when the parser left
+ * "Superior " or affix words in a name.
+ *
+ * Names are normalised (lower case, letters and digits only) and indexed by their character
+ * trigrams. The names that share trigrams with the query are checked for a small edit distance
+ * first and otherwise for being contained in the query as whole words, the longest one wins.
+ */
+class FuzzyNameIndex {
+
+    private static final String SUPERIOR = "superior ";
+    private static final int MIN_CONTAINED_LENGTH = 5;
+    // Rough heap cost of a normalized name with its map entry, and of a trigram key with its postings array
+    private static final int BYTES_PER_NAME = 96;
+    private static final int BYTES_PER_TRIGRAM = 80;
+
+    private final String[] normalizedNames;
+    private final int[] trigramCounts;
+    private final Map<String, Integer> groupByNormalizedName = new HashMap<>();
+    private final Map<Long, int[]> groupsByTrigram = new HashMap<>();
+    private final long memory;
+
+    FuzzyNameIndex(String[] names) {
+        normalizedNames = new String[names.length];
+        trigramCounts = new int[names.length];
+        Map<Long, List<Integer>> postings = new HashMap<>();
+        for (int group = 0; group < names.length; group++) {
+            String normalized = normalize(names[group]);
+            normalizedNames[group] = normalized;
+            groupByNormalizedName.putIfAbsent(normalized, group);
+            Set<Long> trigrams = trigrams(normalized);
+            trigramCounts[group] = trigrams.size();
+            for (long trigram : trigrams) {
+                postings.computeIfAbsent(trigram, key -> new ArrayList<>()).add(group);
+            }
+        }
+        long bytes = 0;
+        for (String normalized : normalizedNames) {
+            bytes += BYTES_PER_NAME + normalized.length();
+        }
+        for (Map.Entry<Long, List<Integer>> entry : postings.entrySet()) {
+            groupsByTrigram.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+            bytes += BYTES_PER_TRIGRAM + 4L * entry.getValue().size();
+        }
+        memory = bytes;
+    }
+
+    long estimateMemory() {
+        return memory;
+    }
+
+    /**
+     * @return the group of the closest name, or -1 when no name is close enough
+     */
+    int find(String name) {
+        String query = normalize(name);
+        if (query.isEmpty()) {
+            return -1;
+        }
+        Integer exact = groupByNormalizedName.get(query);
+        if (exact != null) {
+            return exact;
+        }
+
+        Set<Long> queryTrigrams = trigrams(query);
+        Map<Integer, Integer> sharedTrigrams = new HashMap<>();
+        for (long trigram : queryTrigrams) {
+            int[] groups = groupsByTrigram.get(trigram);
+            if (groups == null) {
+                continue;
+            }
+            for (int group : groups) {
+                sharedTrigrams.merge(group, 1, Integer::sum);
+            }
+        }
+
+        int maxDistance = getMaxDistance(query.length());
+        int closest = -1;
+        int closestDistance = maxDistance + 1;
+        int contained = -1;
+        for (Map.Entry<Integer, Integer> entry : sharedTrigrams.entrySet()) {
+            int group = entry.getKey();
+            int shared = entry.getValue();
+            String candidate = normalizedNames[group];
+
+            // Every edit changes at most three trigrams
+            if (maxDistance > 0 && Math.abs(candidate.length() - query.length()) <= maxDistance
+                    && shared >= Math.max(queryTrigrams.size(), trigramCounts[group]) - 3 * maxDistance) {
+                int distance = distance(query, candidate, Math.min(maxDistance, closestDistance));
+                if (distance < closestDistance || (distance == closestDistance && group < closest)) {
+                    closest = group;
+                    closestDistance = distance;
+                }
+            }
+
+            if (shared == trigramCounts[group] && candidate.length() >= MIN_CONTAINED_LENGTH
+                    && containsWords(query, candidate)
+                    && (contained == -1 || candidate.length() > normalizedNames[contained].length()
+                        || (candidate.length() == normalizedNames[contained].length() && group < contained))) {
+                contained = group;
+            }
+        }
+        return closest != -1 ? closest : contained;
+    }
+
+    static String normalize(String name) {
+        StringBuilder normalized = new StringBuilder(name.length());
+        boolean space = true;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toLowerCase(c));
+                space = false;
+            } else if (!space) {
+                normalized.append(' ');
+                space = true;
+            }
+        }
+        if (space && normalized.length() > 0) {
+            normalized.setLength(normalized.length() - 1);
+        }
+        if (normalized.length() > SUPERIOR.length() && normalized.indexOf(SUPERIOR) == 0) {
+            normalized.delete(0, SUPERIOR.length());
+        }
+        return normalized.toString();
+    }
+
+    private static int getMaxDistance(int length) {
+        if (length < 6) {
+            return 0;
+        }
+        return length < 12 ? 1 : length < 20 ? 2 : 3;
+    }
+
+    private static Set<Long> trigrams(String normalized) {
+        String padded = " " + normalized + " ";
+        Set<Long> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2));
+        }
+        return trigrams;
+    }
+
+    private static boolean containsWords(String query, String candidate) {
+        int from = 0;
+        int index;
+        while ((index = query.indexOf(candidate, from)) != -1) {
+            int end = index + candidate.length();
+            if ((index == 0 || query.charAt(index - 1) == ' ') && (end == query.length() || query.charAt(end) == ' ')) {
+                return true;
+            }
+            from = index + 1;
+        }
+        return false;
+    }
+
+    /**
+     * Levenshtein distance, or max + 1 as soon as it is known to be larger than max.
+     */
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMinimum = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (rowMinimum > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+}
@@ -1,259 +1,303 @@
 package dev.tricht.lunaris.ninja.poe;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.tricht.lunaris.PropertiesManager;
 import dev.tricht.lunaris.data.DataDirectory;
 import dev.tricht.lunaris.item.Item;
 import dev.tricht.lunaris.item.ItemRarity;
 import dev.tricht.lunaris.item.types.*;
-import lombok.SneakyThrows;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
+import okhttp3.*;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
 public class ItemResolver {
 
     private static OkHttpClient client;
-    private Map<String, ArrayList<RemoteItem>> items;
-    private static final int HOUR_IN_MILLI = 60 * 60 * 1000;
-
+    private static final int DEFAULT_MAX_REQUESTS = 5;
+    private static final int REFRESH_INTERVAL_MINUTES = 15;
+    private static final int MAX_RESIDENT_LEAGUES = 3;
+    private static final long RESIDENT_MEMORY_BUDGET = 64 * 1024 * 1024;
+    private static final StringPool stringPool = new StringPool();
+
+    // The league prices are looked up in, each category is loaded on first use
+    private final AtomicReference<LeaguePrices> current = new AtomicReference<>();
+    private ScheduledExecutorService scheduler;
+    // Recently used leagues, least recently used first. Evicted leagues are loaded from disk again.
+    private final LinkedHashMap<String, LeaguePrices> residentLeagues = new LinkedHashMap<>(8, 0.75f, true);
+    // Called on the refresh thread once the background warmer has loaded a league
+    @Setter
+    private volatile Runnable onWarmed = () -> {};
+
+    /**
+     * Does not wait for the prices, the categories are loaded by a background warmer. Until it is done,
+     * price checks only use the categories that are loaded.
+     */
     public ItemResolver(String leagueName) {
-        client = new OkHttpClient();
-        refresh(leagueName);
+        client = createClient();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "poe.ninja refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refreshAsync(leagueName);
+        scheduler.scheduleWithFixedDelay(this::refresh,
+                REFRESH_INTERVAL_MINUTES, REFRESH_INTERVAL_MINUTES, TimeUnit.MINUTES);
     }
 
-    public void refresh(String leagueName) {
-        items = new HashMap<>();
-        File leagueDirectory = getLeagueDataDirectory(leagueName);
-        downloadFiles(leagueDirectory, leagueName);
-        loadFiles(leagueDirectory);
+    /**
+     * Uses previously downloaded poe.ninja files, without going online.
+     */
+    public ItemResolver(File leagueDirectory) {
+        LeaguePrices prices = new LeaguePrices(null, stringPool, leagueDirectory, null);
+        for (String type : Types.allTypes) {
+            prices.get(type);
+        }
+        current.set(prices);
     }
 
-    private static void downloadFiles(File dataDirectory, String leagueName) {
-        File lastUpdatedFile = new File(dataDirectory.getAbsolutePath() + "\\.last-updated");
-        if (lastUpdatedFile.exists() && (System.currentTimeMillis() - lastUpdatedFile.lastModified()) < HOUR_IN_MILLI) {
-            return;
-        }
-        for (String type : Types.currencyTypes) {
-            downloadJson("https://poe.ninja/api/data/currencyoverview", type, dataDirectory, leagueName);
-        }
-        for (String type : Types.itemTypes) {
-            downloadJson("https://poe.ninja/api/data/itemoverview", type, dataDirectory, leagueName);
-        }
+    /**
+     * Revalidates the categories of the current league that have been loaded.
+     */
+    public void refresh() {
+        LeaguePrices prices = current.get();
         try {
-            lastUpdatedFile.createNewFile();
-            lastUpdatedFile.setLastModified(System.currentTimeMillis());
-        } catch (IOException e) {
-            log.error("Failed saving data from poe.ninja", e);
+            prices.refreshLoaded();
+            keepResident(prices);
+        } catch (RuntimeException e) {
+            log.error("Failed refreshing prices of " + prices.getLeagueName(), e);
         }
     }
 
-    @SneakyThrows
-    private static void downloadJson(String baseUrl, String type, File dataDirectory, String leagueName) {
-        log.debug("Downloading " + type);
-        Request request = new Request.Builder()
-                .url(String.format("%s?type=%s&league=%s", baseUrl, type, leagueName))
-                .build();
-        Response response = client.newCall(request).execute();
-        FileOutputStream output = new FileOutputStream(dataDirectory + "\\" + type + ".json");
-        output.write(response.body().bytes());
-        output.close();
-    }
-
-    private File getLeagueDataDirectory(String leagueName) {
-        return DataDirectory.getDirectory("poe-ninja\\" + leagueName);
-    }
-
-    private void loadFiles(File leagueDirectory) {
-        for (String type : Types.currencyTypes) {
-            loadFile(new File(leagueDirectory.getAbsolutePath() + "\\" + type + ".json"));
+    /**
+     * Switches to the league immediately and warms its categories on the background thread. A recently
+     * used league keeps the categories it already had loaded.
+     */
+    public void refreshAsync(String leagueName) {
+        LeaguePrices prices;
+        synchronized (residentLeagues) {
+            prices = residentLeagues.get(leagueName);
         }
-        for (String type : Types.itemTypes) {
-            loadFile(new File(leagueDirectory.getAbsolutePath() + "\\" + type + ".json"));
+        if (prices == null) {
+            prices = new LeaguePrices(client, stringPool, getLeagueDataDirectory(leagueName), leagueName);
         }
+        current.set(prices);
+        LeaguePrices warming = prices;
+        scheduler.execute(() -> {
+            try {
+                warming.warm();
+                keepResident(warming);
+                onWarmed.run();
+            } catch (RuntimeException e) {
+                log.error("Failed loading prices of " + leagueName, e);
+            }
+        });
     }
 
-    private void loadFile(File file) {
-        log.debug("Loading " + file);
-        if (!file.exists()) {
-            throw new RuntimeException(String.format("File %s does not exist", file.getAbsolutePath()));
-        }
-        ObjectMapper objectMapper = new ObjectMapper();
-        Root root;
-        try {
-            root = objectMapper.readValue(file, Root.class);
-        } catch (IOException e) {
-            log.error(String.format("Unable to parse %s", file.getAbsolutePath()), e);
-            return;
-        }
-        for (RemoteItem item : root.getItems()) {
-            if (!items.containsKey(item.getName())) {
-                items.put(item.getName(), new ArrayList<>());
+    private void keepResident(LeaguePrices prices) {
+        synchronized (residentLeagues) {
+            residentLeagues.put(prices.getLeagueName(), prices);
+            long memory = residentLeagues.values().stream().mapToLong(LeaguePrices::estimateMemory).sum();
+            Iterator<Map.Entry<String, LeaguePrices>> iterator = residentLeagues.entrySet().iterator();
+            while (residentLeagues.size() > 1
+                    && (residentLeagues.size() > MAX_RESIDENT_LEAGUES || memory > RESIDENT_MEMORY_BUDGET)) {
+                Map.Entry<String, LeaguePrices> eldest = iterator.next();
+                log.debug("Evicting prices of " + eldest.getKey());
+                memory -= eldest.getValue().estimateMemory();
+                iterator.remove();
             }
-            items.get(item.getName()).add(item);
         }
+    }
 
-        if (root.getCurrencyDetails() != null) {
-            for (CurrencyDetail currencyDetail : root.getCurrencyDetails()) {
-                if (items.containsKey(currencyDetail.getName())) {
-                    for (RemoteItem item : items.get(currencyDetail.getName())) {
-                        item.setIconUrl(currencyDetail.getIconUrl());
-                    }
-                }
+    private static OkHttpClient createClient() {
+        Dispatcher dispatcher = new Dispatcher();
+        int maxRequests = DEFAULT_MAX_REQUESTS;
+        if (PropertiesManager.containsKey(PropertiesManager.NINJA_MAX_REQUESTS)) {
+            try {
+                maxRequests = Integer.parseInt(PropertiesManager.getProperty(PropertiesManager.NINJA_MAX_REQUESTS));
+            } catch (NumberFormatException e) {
+                log.error("Invalid " + PropertiesManager.NINJA_MAX_REQUESTS + ", using " + DEFAULT_MAX_REQUESTS);
             }
         }
+        dispatcher.setMaxRequestsPerHost(Math.max(1, maxRequests));
+        return new OkHttpClient.Builder().dispatcher(dispatcher).build();
+    }
+
+    private static File getLeagueDataDirectory(String leagueName) {
+        return DataDirectory.getDirectory("poe-ninja\\" + leagueName);
     }
 
     public boolean hasItem(Item item) {
-        String itemName = item.getRarity() == ItemRarity.UNIQUE ? item.getName() : item.getBase();
-        return items.containsKey(itemName);
+        return getItem(item) != null;
+    }
+
+    /**
+     * Does not wait for poe.ninja, it is called by the trade calls.
+     *
+     * @return the currency rates of the league the current prices are from, or null when its Currency
+     * category is not loaded yet
+     */
+    public CurrencyRates getCurrencyRates() {
+        LeaguePrices prices = current.get();
+        CurrencyRates rates = prices.getLoadedCurrencyRates();
+        if (rates == null) {
+            scheduleWarm(prices);
+        }
+        return rates;
     }
 
-    public Price appraise(RemoteItem item) {
+    public Price appraise(PriceMatch match) {
         Price price = new Price();
-        price.setPrice(item.getPrice());
+        price.setPrice(match.getPrice());
 
-        if (item.isLowConfidence()) {
+        if (match.isLowConfidence()) {
             price.setLowConfidence(true);
         }
 
-        if (item.getReason() != null) {
-            price.setReason(item.getReason());
+        if (match.getReason() != null) {
+            price.setReason(match.getReason());
         }
 
         return price;
     }
 
-    public RemoteItem getItem(Item item) {
-        String itemName = item.getRarity() == ItemRarity.UNIQUE ? item.getName() : item.getBase();
+    /**
+     * @return the closest poe.ninja variant of the item, or null when poe.ninja does not know it
+     */
+    public PriceMatch getItem(Item item) {
+        String name = getItemName(item);
+        if (name == null) {
+            return null;
+        }
+        LeaguePrices prices = current.get();
+        List<String> types = Types.forItem(item);
+        if (types == null) {
+            types = getLoadedTypes(prices, Types.allTypes);
+        } else if (prices.isWarmed()) {
+            // Only categories the warmer skipped can be missing, they are downloaded together
+            prices.loadAll(types);
+        } else {
+            // The league was just selected, the check does not wait for the warmer or poe.ninja
+            types = getLoadedTypes(prices, types);
+        }
 
-        ArrayList<RemoteItem> remoteItemList = items.get(itemName);
+        // Exact names first, so a close name in an earlier category does not win over the real one
+        for (String type : types) {
+            PriceIndex priceIndex = prices.get(type);
+            int group = priceIndex.getGroup(name);
+            if (group != -1) {
+                return getVariant(priceIndex, group, item);
+            }
+        }
+        for (String type : types) {
+            PriceIndex priceIndex = prices.get(type);
+            int group = priceIndex.findSimilarGroup(name);
+            if (group != -1) {
+                return getVariant(priceIndex, group, item).withMatchedName(priceIndex.getTable().getName(group));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the categories that are loaded already, the others are loaded on the refresh thread so
+     * a price check does not wait for poe.ninja
+     */
+    private List<String> getLoadedTypes(LeaguePrices prices, List<String> candidates) {
+        List<String> types = new ArrayList<>();
+        boolean missing = false;
+        for (String type : candidates) {
+            if (Types.onDemandTypes.contains(type)) {
+                continue;
+            }
+            if (prices.isLoaded(type)) {
+                types.add(type);
+            } else {
+                missing = true;
+            }
+        }
+        if (missing) {
+            scheduleWarm(prices);
+        }
+        return types;
+    }
 
-        if (remoteItemList.size() == 1) {
-            return remoteItemList.get(0);
+    private void scheduleWarm(LeaguePrices prices) {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.execute(() -> {
+            try {
+                prices.warm();
+            } catch (RuntimeException e) {
+                log.error("Failed loading prices of " + prices.getLeagueName(), e);
+            }
+        });
+    }
+
+    private static PriceMatch getVariant(PriceIndex priceIndex, int group, Item item) {
+        PriceTable table = priceIndex.getTable();
+        VariantIndex variantIndex = priceIndex.getVariants(group);
+        if (variantIndex == null) {
+            return new PriceMatch(table, table.getGroupStart(group), null);
         }
 
         if (item.getType() instanceof MapItem) {
-            for (RemoteItem remoteItem : remoteItemList) {
-                if (remoteItem.getMapTier() == ((MapItem) item.getType()).getTier()) {
-                    return remoteItem;
-                }
+            int row = variantIndex.findMapTier(((MapItem) item.getType()).getTier());
+            if (row != -1) {
+                return new PriceMatch(table, row, null);
             }
         }
 
         if (item.getRarity() == ItemRarity.UNIQUE && item.getProps().getLinks() > 0) {
-            RemoteItem zeroLinksItem = null;
-            for (RemoteItem remoteItem : remoteItemList) {
-               if (remoteItem.getLinks() == item.getProps().getLinks()) {
-                   return remoteItem;
-               }
-               if (remoteItem.getLinks() == 0) {
-                   zeroLinksItem = remoteItem;
-               }
-            }
-            if (zeroLinksItem != null) {
-                return zeroLinksItem;
+            int row = variantIndex.findLinks(item.getProps().getLinks());
+            if (row != -1) {
+                return new PriceMatch(table, row, null);
             }
         }
 
         if (item.getType() instanceof HasItemLevel && item.getRarity() != ItemRarity.UNIQUE) {
-            RemoteItem chosenRemoteItem = null;
-
-            for (RemoteItem remoteItem : remoteItemList) {
-                int ilvlDiff = Math.abs(remoteItem.getItemLevel() - item.getProps().getItemLevel());
-                String remoteItemInfluence = "none";
-                if (remoteItem.getInfluence() != null) {
-                    remoteItemInfluence = remoteItem.getInfluence().toLowerCase();
-                }
-
-                if (remoteItemInfluence.equals(item.getProps().getInfluence().name().toLowerCase())) {
-                    if (chosenRemoteItem == null) {
-                        chosenRemoteItem = remoteItem;
-                    }
-
-                    if (ilvlDiff < Math.abs(chosenRemoteItem.getItemLevel() - item.getProps().getItemLevel())) {
-                        chosenRemoteItem = remoteItem;
-                    }
-                }
-            }
+            int row = variantIndex.findItemLevel(item.getProps().getInfluence(), item.getProps().getItemLevel());
 
-            if (chosenRemoteItem != null) {
-                boolean isExactlySameIlvl = chosenRemoteItem.getItemLevel() == item.getProps().getItemLevel();
+            if (row != -1) {
+                boolean isExactlySameIlvl = table.getItemLevel(row) == item.getProps().getItemLevel();
 
-                chosenRemoteItem.setReason(String.format(
+                return new PriceMatch(table, row, String.format(
                         "%silvl %s %s",
                         !isExactlySameIlvl ? "closest to " : "",
-                        chosenRemoteItem.getItemLevel(), chosenRemoteItem.getInfluence() != null
-                                ? ", " + chosenRemoteItem.getInfluence().toLowerCase() + " base"
+                        table.getItemLevel(row), table.getInfluence(row) != null
+                                ? ", " + table.getInfluenceLabel(row) + " base"
                                 : ""
                 ));
-
-                return chosenRemoteItem;
             }
         }
 
         if (item.getType() instanceof GemItem) {
-            RemoteItem chosenRemoteItem = null;
             GemItem gemItem = (GemItem) item.getType();
-
-            // Match closest level
-            int chosenGemLevel = 9999;
-            for (RemoteItem remoteItem : remoteItemList) {
-                int gemLvlDiff = Math.abs(remoteItem.getGemLevel() - gemItem.getLevel());
-
-                if (gemLvlDiff < Math.abs(chosenGemLevel - gemItem.getLevel())) {
-                    chosenGemLevel = remoteItem.getGemLevel();
-                }
-            }
-
-            // Match closest quality
-            int chosenGemQuality = 9999;
-            for (RemoteItem remoteItem : remoteItemList) {
-                if (remoteItem.getGemLevel() != chosenGemLevel) {
-                    continue;
-                }
-
-                int gemQualDiff = Math.abs(remoteItem.getGemQuality() - item.getProps().getQuality());
-                if (gemQualDiff < Math.abs(chosenGemQuality - item.getProps().getQuality())) {
-                    chosenGemQuality = remoteItem.getGemQuality();
-                }
-            }
-
-            // Match corruption
-            for (RemoteItem remoteItem : remoteItemList) {
-                if ((remoteItem.getGemLevel() != chosenGemLevel) || (remoteItem.getGemQuality() != chosenGemQuality)) {
-                    continue;
-                }
-                if (chosenRemoteItem == null) {
-                    chosenRemoteItem = remoteItem;
-                }
-                if (item.getProps().isCorrupted() == remoteItem.isCorrupted()) {
-                    chosenRemoteItem = remoteItem;
-                }
-            }
-
-            if (chosenRemoteItem != null) {
-                boolean isExactMatch = (chosenRemoteItem.getGemQuality() == item.getProps().getQuality())
-                        && (chosenRemoteItem.getGemLevel() == gemItem.getLevel()) && (chosenRemoteItem.isCorrupted() == item.getProps().isCorrupted());
-                chosenRemoteItem.setReason(String.format(
-                        "%sgem level %s, %s quality%s",
-                        !isExactMatch ? "closest to " : "",
-                        chosenRemoteItem.getGemLevel(), chosenRemoteItem.getGemQuality(), chosenRemoteItem.isCorrupted() ? ", corrupted" : ""
-                ));
-
-                return chosenRemoteItem;
-            }
+            int row = variantIndex.findGem(gemItem.getLevel(), item.getProps().getQuality(), item.getProps().isCorrupted());
+
+            boolean isExactMatch = (table.getGemQuality(row) == item.getProps().getQuality())
+                    && (table.getGemLevel(row) == gemItem.getLevel()) && (table.isCorrupted(row) == item.getProps().isCorrupted());
+            return new PriceMatch(table, row, String.format(
+                    "%sgem level %s, %s quality%s",
+                    !isExactMatch ? "closest to " : "",
+                    table.getGemLevel(row), table.getGemQuality(row), table.isCorrupted(row) ? ", corrupted" : ""
+            ));
         }
 
-        return remoteItemList.get(0);
+        return new PriceMatch(table, variantIndex.first(), null);
+    }
+
+    private static String getItemName(Item item) {
+        return item.getRarity() == ItemRarity.UNIQUE ? item.getName() : item.getBase();
     }
 
 }
@@ -0,0 +1,289 @@
+package dev.tricht.lunaris.ninja.poe;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * The poe.ninja prices of one league, loaded per category when they are first needed.
+ */
+@Slf4j
+class LeaguePrices {
+
+    private final OkHttpClient client;
+    private final StringPool stringPool;
+    private final File directory;
+    // Null when the prices are only read from disk
+    private final String leagueName;
+
+    private final Map<String, PriceIndex> loaded = new ConcurrentHashMap<>();
+    // Modification time of the JSON file each loaded category was read from
+    private final Map<String, Long> loadedVersions = new ConcurrentHashMap<>();
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+    // Rebuilt whenever the Currency or Fragment category is loaded
+    private final Map<String, PriceTable> currencyTables = new HashMap<>();
+    private volatile CurrencyRates currencyRates;
+    // Set once the warmer has run, until then price checks only use the categories that are loaded
+    private volatile boolean warmed;
+
+    LeaguePrices(OkHttpClient client, StringPool stringPool, File directory, String leagueName) {
+        this.client = client;
+        this.stringPool = stringPool;
+        this.directory = directory;
+        this.leagueName = leagueName;
+    }
+
+    String getLeagueName() {
+        return leagueName;
+    }
+
+    /**
+     * @return the prices of the category, downloading and loading them first when needed
+     */
+    PriceIndex get(String type) {
+        PriceIndex priceIndex = loaded.get(type);
+        if (priceIndex != null) {
+            return priceIndex;
+        }
+        synchronized (lock(type)) {
+            priceIndex = loaded.get(type);
+            if (priceIndex == null) {
+                download(List.of(type));
+                priceIndex = load(type);
+            }
+        }
+        return priceIndex;
+    }
+
+    /**
+     * Downloads all categories at once and loads those that are not loaded yet, except the ones that are
+     * only loaded on demand.
+     */
+    void warm() {
+        List<String> types = new ArrayList<>();
+        for (String type : Types.allTypes) {
+            if (!Types.onDemandTypes.contains(type)) {
+                types.add(type);
+            }
+        }
+        try {
+            loadAll(types);
+        } finally {
+            warmed = true;
+        }
+    }
+
+    boolean isWarmed() {
+        return warmed;
+    }
+
+    /**
+     * Downloads the categories that are not loaded yet at once, then loads them.
+     */
+    void loadAll(List<String> types) {
+        List<String> missing = new ArrayList<>();
+        for (String type : types) {
+            if (!loaded.containsKey(type)) {
+                missing.add(type);
+            }
+        }
+        download(missing);
+        for (String type : missing) {
+            get(type);
+        }
+    }
+
+    /**
+     * Revalidates the loaded categories and reloads those that changed.
+     */
+    void refreshLoaded() {
+        List<String> types = new ArrayList<>(loaded.keySet());
+        download(types);
+        for (String type : types) {
+            synchronized (lock(type)) {
+                long version = new File(directory, type + ".json").lastModified();
+                if (version != loadedVersions.getOrDefault(type, 0L)) {
+                    load(type);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the currency rates of the Currency and Fragment categories loaded so far, null when neither
+     * is loaded
+     */
+    CurrencyRates getLoadedCurrencyRates() {
+        return currencyRates;
+    }
+
+    boolean isLoaded(String type) {
+        return loaded.containsKey(type);
+    }
+
+    long estimateMemory() {
+        return loaded.values().stream().mapToLong(PriceIndex::estimateMemory).sum();
+    }
+
+    private Object lock(String type) {
+        return locks.computeIfAbsent(type, key -> new Object());
+    }
+
+    private PriceIndex load(String type) {
+        File file = new File(directory, type + ".json");
+        // Read before the file, a download replacing it meanwhile then only causes another reload
+        long version = file.lastModified();
+        PriceIndex priceIndex = new PriceIndex(loadTable(type, file, version));
+        // Before the category counts as loaded, so the rates of a loaded category are never missing
+        if (Types.currencyTypes.contains(type)) {
+            updateCurrencyRates(type, priceIndex.getTable());
+        }
+        loaded.put(type, priceIndex);
+        loadedVersions.put(type, version);
+        return priceIndex;
+    }
+
+    private synchronized void updateCurrencyRates(String type, PriceTable table) {
+        currencyTables.put(type, table);
+        List<PriceTable> tables = new ArrayList<>();
+        for (String currencyType : Types.currencyTypes) {
+            if (currencyTables.containsKey(currencyType)) {
+                tables.add(currencyTables.get(currencyType));
+            }
+        }
+        currencyRates = CurrencyRates.of(tables);
+    }
+
+    private PriceTable loadTable(String type, File file, long version) {
+        File snapshot = new File(directory, type + PriceSnapshot.EXTENSION);
+        PriceTable snapshotTable = PriceSnapshot.read(snapshot, stringPool, file.exists() ? version : null);
+        if (snapshotTable != null) {
+            return snapshotTable;
+        }
+
+        Map<String, ArrayList<RemoteItem>> items = new HashMap<>();
+        loadFile(file, items);
+        PriceTable table = PriceTable.of(items);
+        if (file.exists()) {
+            PriceSnapshot.write(snapshot, table, version);
+        }
+        return table;
+    }
+
+    private void loadFile(File file, Map<String, ArrayList<RemoteItem>> items) {
+        log.debug("Loading " + file);
+        if (!file.exists()) {
+            log.error(String.format("File %s does not exist", file.getAbsolutePath()));
+            return;
+        }
+        Root root;
+        try {
+            root = NinjaFileReader.read(file, stringPool);
+        } catch (IOException e) {
+            log.error(String.format("Unable to parse %s", file.getAbsolutePath()), e);
+            return;
+        }
+        for (RemoteItem item : root.getItems()) {
+            if (!items.containsKey(item.getName())) {
+                items.put(item.getName(), new ArrayList<>());
+            }
+            items.get(item.getName()).add(item);
+        }
+
+        if (root.getCurrencyDetails() != null) {
+            for (CurrencyDetail currencyDetail : root.getCurrencyDetails()) {
+                if (items.containsKey(currencyDetail.getName())) {
+                    for (RemoteItem item : items.get(currencyDetail.getName())) {
+                        item.setIconUrl(currencyDetail.getIconUrl());
+                    }
+                }
+            }
+        }
+    }
+
+    private void download(List<String> types) {
+        if (leagueName == null || types.isEmpty()) {
+            return;
+        }
+        CountDownLatch latch = new CountDownLatch(types.size());
+        for (String type : types) {
+            String baseUrl = Types.currencyTypes.contains(type)
+                    ? "https://poe.ninja/api/data/currencyoverview"
+                    : "https://poe.ninja/api/data/itemoverview";
+            downloadJson(baseUrl, type, latch);
+        }
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void downloadJson(String baseUrl, String type, CountDownLatch latch) {
+        File jsonFile = new File(directory, type + ".json");
+        File metadataFile = new File(directory, type + ".meta");
+        CategoryMetadata metadata = CategoryMetadata.load(metadataFile);
+        boolean cached = jsonFile.exists();
+        if (cached && metadata.isFresh(Types.getTimeToLive(type), System.currentTimeMillis())) {
+            latch.countDown();
+            return;
+        }
+
+        log.debug("Downloading " + type);
+        Request.Builder request = new Request.Builder()
+                .url(String.format("%s?type=%s&league=%s", baseUrl, type, leagueName));
+        if (cached && metadata.getEtag() != null) {
+            request.header("If-None-Match", metadata.getEtag());
+        }
+        if (cached && metadata.getLastModified() != null) {
+            request.header("If-Modified-Since", metadata.getLastModified());
+        }
+        client.newCall(request.build()).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                log.error(String.format("Failed downloading %s from poe.ninja", type), e);
+                latch.countDown();
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (response) {
+                    if (response.code() == 304) {
+                        log.debug(type + " not modified");
+                    } else if (response.isSuccessful()) {
+                        // The warmer and a price check can download the same category at the same time
+                        File temporary = File.createTempFile(type, ".json", directory);
+                        try {
+                            Files.write(temporary.toPath(), response.body().bytes());
+                            Files.move(temporary.toPath(), jsonFile.toPath(),
+                                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                        } finally {
+                            // Only left when the body could not be read or the move failed
+                            Files.deleteIfExists(temporary.toPath());
+                        }
+                        metadata.setEtag(response.header("ETag"));
+                        metadata.setLastModified(response.header("Last-Modified"));
+                    } else {
+                        throw new IOException("Unexpected response " + response.code());
+                    }
+                    metadata.setFetchedAt(System.currentTimeMillis());
+                    metadata.save(metadataFile);
+                } catch (IOException e) {
+                    log.error(String.format("Failed downloading %s from poe.ninja", type), e);
+                } finally {
+                    latch.countDown();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,187 @@
+package dev.tricht.lunaris.ninja.poe;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Streams a poe.ninja overview file, only keeping the fields used for appraising. The sparklines
+ * are read into reused buffers to decide whether a price is low confidence and are then dropped.
+ */
+class NinjaFileReader {
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    private final StringPool stringPool;
+    private double[] graph = new double[8];
+    private int graphLength;
+    private double[] lowConfidenceGraph = new double[8];
+    private int lowConfidenceGraphLength;
+
+    private NinjaFileReader(StringPool stringPool) {
+        this.stringPool = stringPool;
+    }
+
+    static Root read(File file, StringPool stringPool) throws IOException {
+        return new NinjaFileReader(stringPool).readRoot(file);
+    }
+
+    private Root readRoot(File file) throws IOException {
+        Root root = new Root();
+        root.setItems(new ArrayList<>());
+        try (JsonParser parser = jsonFactory.createParser(file)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.START_ARRAY && field.equals("lines")) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        root.getItems().add(readItem(parser));
+                    }
+                } else if (value == JsonToken.START_ARRAY && field.equals("currencyDetails")) {
+                    root.setCurrencyDetails(new ArrayList<>());
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        root.getCurrencyDetails().add(readCurrencyDetail(parser));
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return root;
+    }
+
+    private RemoteItem readItem(JsonParser parser) throws IOException {
+        RemoteItem item = new RemoteItem();
+        boolean hasGraph = false;
+        boolean hasLowConfidenceGraph = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "name":
+                case "currencyTypeName":
+                    item.setName(stringPool.intern(parser.getValueAsString()));
+                    break;
+                case "chaosValue":
+                case "chaosEquivalent":
+                    item.setPrice(parser.getValueAsDouble());
+                    break;
+                case "icon":
+                    item.setIconUrl(stringPool.intern(parser.getValueAsString()));
+                    break;
+                case "mapTier":
+                    item.setMapTier(parser.getValueAsInt());
+                    break;
+                case "levelRequired":
+                    item.setItemLevel(parser.getValueAsInt());
+                    break;
+                case "variant":
+                    item.setInfluence(stringPool.intern(parser.getValueAsString()));
+                    break;
+                case "gemLevel":
+                    item.setGemLevel(parser.getValueAsInt());
+                    break;
+                case "gemQuality":
+                    item.setGemQuality(parser.getValueAsInt());
+                    break;
+                case "corrupted":
+                    item.setCorrupted(parser.getValueAsBoolean());
+                    break;
+                case "links":
+                    item.setLinks(parser.getValueAsInt());
+                    break;
+                case "sparkline":
+                    hasGraph = parser.currentToken() == JsonToken.START_OBJECT;
+                    graphLength = hasGraph ? readGraph(parser, false) : 0;
+                    break;
+                case "lowConfidenceSparkline":
+                    hasLowConfidenceGraph = parser.currentToken() == JsonToken.START_OBJECT;
+                    lowConfidenceGraphLength = hasLowConfidenceGraph ? readGraph(parser, true) : 0;
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        item.setLowConfidence(hasLowConfidenceGraph && !isSameGraph(hasGraph) && !isLowConfidenceGraphEmpty());
+        return item;
+    }
+
+    private CurrencyDetail readCurrencyDetail(JsonParser parser) throws IOException {
+        CurrencyDetail currencyDetail = new CurrencyDetail();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if (field.equals("name")) {
+                currencyDetail.setName(stringPool.intern(parser.getValueAsString()));
+            } else if (field.equals("icon")) {
+                currencyDetail.setIconUrl(stringPool.intern(parser.getValueAsString()));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return currencyDetail;
+    }
+
+    /**
+     * Reads the "data" points of a sparkline object, null points count as 0.
+     *
+     * @return the number of points, or -1 when the sparkline has no data
+     */
+    private int readGraph(JsonParser parser, boolean lowConfidence) throws IOException {
+        int length = -1;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            if (parser.nextToken() != JsonToken.START_ARRAY || !field.equals("data")) {
+                parser.skipChildren();
+                continue;
+            }
+            double[] buffer = lowConfidence ? lowConfidenceGraph : graph;
+            length = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, length * 2);
+                }
+                buffer[length++] = parser.getValueAsDouble();
+            }
+            if (lowConfidence) {
+                lowConfidenceGraph = buffer;
+            } else {
+                graph = buffer;
+            }
+        }
+        return length;
+    }
+
+    private boolean isSameGraph(boolean hasGraph) {
+        if (!hasGraph || graphLength != lowConfidenceGraphLength) {
+            return false;
+        }
+        for (int i = 0; i < graphLength; i++) {
+            if (Double.compare(graph[i], lowConfidenceGraph[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isLowConfidenceGraphEmpty() {
+        for (int i = 0; i < lowConfidenceGraphLength; i++) {
+            if (lowConfidenceGraph[i] != 0.0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException(String.format("Expected %s but got %s", expected, actual));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package dev.tricht.lunaris.ninja.poe;
+
+/**
+ * The poe.ninja prices of one category. Never changed after construction, so it can be read from any
+ * thread while a refresh builds the next one. Only the fuzzy name index is built later, by the first
+ * name without an exact match, as most categories never need it.
+ */
+class PriceIndex {
+
+    // Rough heap cost of one variant in the table and its index entries
+    private static final int BYTES_PER_VARIANT = 96;
+
+    private final PriceTable table;
+    // Only names with more than one variant are indexed
+    private final VariantIndex[] variantIndexes;
+    private volatile FuzzyNameIndex fuzzyNameIndex;
+
+    PriceIndex(PriceTable table) {
+        this.table = table;
+        variantIndexes = new VariantIndex[table.getGroupCount()];
+        for (int group = 0; group < variantIndexes.length; group++) {
+            if (table.getGroupEnd(group) - table.getGroupStart(group) > 1) {
+                variantIndexes[group] = new VariantIndex(table, group);
+            }
+        }
+    }
+
+    PriceTable getTable() {
+        return table;
+    }
+
+    long estimateMemory() {
+        FuzzyNameIndex index = fuzzyNameIndex;
+        return (long) table.getRowCount() * BYTES_PER_VARIANT + (index != null ? index.estimateMemory() : 0);
+    }
+
+    /**
+     * @return the group of the name in the table, or -1 when poe.ninja does not know it
+     */
+    int getGroup(String name) {
+        return table.getGroup(name);
+    }
+
+    /**
+     * @return the group of the closest name in the table, or -1 when no name is close enough
+     */
+    int findSimilarGroup(String name) {
+        return getFuzzyNameIndex().find(name);
+    }
+
+    private FuzzyNameIndex getFuzzyNameIndex() {
+        FuzzyNameIndex index = fuzzyNameIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = fuzzyNameIndex;
+                if (index == null) {
+                    index = new FuzzyNameIndex(table.names);
+                    fuzzyNameIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @return the index of the variants of the group, or null when it has a single variant
+     */
+    VariantIndex getVariants(int group) {
+        return variantIndexes[group];
+    }
+}
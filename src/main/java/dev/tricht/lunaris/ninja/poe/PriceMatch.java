@@ -0,0 +1,59 @@
+package dev.tricht.lunaris.ninja.poe;
+
+import lombok.Getter;
+
+/**
+ * The poe.ninja variant chosen for an item, with why it was chosen when it is not an exact match.
+ * A view on a row of the price table, so it stays small and does not copy the variant.
+ */
+public class PriceMatch {
+    private final PriceTable table;
+    private final int row;
+    @Getter
+    private final String reason;
+
+    PriceMatch(PriceTable table, int row, String reason) {
+        this.table = table;
+        this.row = row;
+        this.reason = reason;
+    }
+
+    /**
+     * @return this match, with the name it was found under when the item name itself is not on poe.ninja
+     */
+    PriceMatch withMatchedName(String name) {
+        return new PriceMatch(table, row, reason == null ? "matched as " + name : "matched as " + name + ", " + reason);
+    }
+
+    public double getPrice() {
+        return table.getPrice(row);
+    }
+
+    public String getIconUrl() {
+        return table.getIconUrl(row);
+    }
+
+    public boolean isLowConfidence() {
+        return table.isLowConfidence(row);
+    }
+
+    public int getItemLevel() {
+        return table.getItemLevel(row);
+    }
+
+    public String getInfluence() {
+        return table.getInfluence(row);
+    }
+
+    public int getGemLevel() {
+        return table.getGemLevel(row);
+    }
+
+    public int getGemQuality() {
+        return table.getGemQuality(row);
+    }
+
+    public boolean isCorrupted() {
+        return table.isCorrupted(row);
+    }
+}
@@ -0,0 +1,150 @@
+package dev.tricht.lunaris.ninja.poe;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Binary copy of the price table of one poe.ninja category, so a start does not need to parse its
+ * JSON file again. The columns are written as they are, only the sparklines are reduced to the low
+ * confidence flag when the table is built. The header holds the modification time of the JSON file the
+ * table was parsed from, a snapshot of any other version of that file is not used.
+ */
+@Slf4j
+class PriceSnapshot {
+
+    static final String EXTENSION = ".bin";
+
+    private static final int MAGIC = 0x4C4E5250;
+    private static final int VERSION = 3;
+
+    /**
+     * @param sourceVersion modification time of the JSON file the table has to be parsed from, or null to
+     *                      accept the table of any version
+     * @return the price table, or null when the snapshot is missing, unreadable, of another format or
+     * of another source version
+     */
+    static PriceTable read(File snapshot, StringPool stringPool, Long sourceVersion) {
+        if (!snapshot.exists()) {
+            return null;
+        }
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(snapshot.toPath());
+        } catch (IOException e) {
+            log.error(String.format("Unable to read %s", snapshot.getAbsolutePath()), e);
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            long tableSourceVersion = in.readLong();
+            if (sourceVersion != null && tableSourceVersion != sourceVersion) {
+                return null;
+            }
+            String[] influences = readStrings(in, stringPool);
+            String[] icons = readStrings(in, stringPool);
+            String[] names = readStrings(in, stringPool);
+            int[] groupStarts = new int[names.length + 1];
+            for (int i = 0; i < groupStarts.length; i++) {
+                groupStarts[i] = in.readInt();
+            }
+
+            int rows = in.readInt();
+            double[] prices = new double[rows];
+            short[] mapTiers = new short[rows];
+            short[] itemLevels = new short[rows];
+            short[] gemLevels = new short[rows];
+            short[] gemQualities = new short[rows];
+            byte[] links = new byte[rows];
+            byte[] flags = new byte[rows];
+            short[] influenceCodes = new short[rows];
+            int[] iconCodes = new int[rows];
+            for (int row = 0; row < rows; row++) {
+                prices[row] = in.readDouble();
+                mapTiers[row] = in.readShort();
+                itemLevels[row] = in.readShort();
+                gemLevels[row] = in.readShort();
+                gemQualities[row] = in.readShort();
+                links[row] = in.readByte();
+                flags[row] = in.readByte();
+                influenceCodes[row] = in.readShort();
+                iconCodes[row] = in.readInt();
+            }
+            return new PriceTable(names, groupStarts, prices, mapTiers, itemLevels, gemLevels, gemQualities, links,
+                    flags, influenceCodes, iconCodes, influences, icons);
+        } catch (IOException e) {
+            log.error(String.format("Unable to parse %s", snapshot.getAbsolutePath()), e);
+            return null;
+        }
+    }
+
+    /**
+     * @param sourceVersion modification time of the JSON file the table was parsed from
+     */
+    static void write(File snapshot, PriceTable table, long sourceVersion) {
+        File temporary = new File(snapshot.getParentFile(), snapshot.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sourceVersion);
+            writeStrings(out, table.influences);
+            writeStrings(out, table.icons);
+            writeStrings(out, table.names);
+            for (int groupStart : table.groupStarts) {
+                out.writeInt(groupStart);
+            }
+
+            out.writeInt(table.getRowCount());
+            for (int row = 0; row < table.getRowCount(); row++) {
+                out.writeDouble(table.prices[row]);
+                out.writeShort(table.mapTiers[row]);
+                out.writeShort(table.itemLevels[row]);
+                out.writeShort(table.gemLevels[row]);
+                out.writeShort(table.gemQualities[row]);
+                out.writeByte(table.links[row]);
+                out.writeByte(table.flags[row]);
+                out.writeShort(table.influenceCodes[row]);
+                out.writeInt(table.iconCodes[row]);
+            }
+        } catch (IOException e) {
+            log.error(String.format("Unable to write %s", snapshot.getAbsolutePath()), e);
+            temporary.delete();
+            return;
+        }
+        try {
+            Files.move(temporary.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.error(String.format("Unable to write %s", snapshot.getAbsolutePath()), e);
+        }
+    }
+
+    private static String[] readStrings(DataInputStream in, StringPool stringPool) throws IOException {
+        String[] values = new String[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = stringPool.intern(readString(in));
+        }
+        return values;
+    }
+
+    private static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+        out.writeInt(values.length);
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+}
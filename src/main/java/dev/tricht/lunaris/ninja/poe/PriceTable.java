@@ -0,0 +1,220 @@
+package dev.tricht.lunaris.ninja.poe;
+
+import dev.tricht.lunaris.item.ItemInfluence;
+
+import java.util.*;
+
+/**
+ * Column store of the poe.ninja variants of a league. The variants of a name are consecutive rows,
+ * influences and icon urls are stored once in a dictionary and referenced by code.
+ */
+class PriceTable {
+
+    static final int CORRUPTED = 1;
+    static final int LOW_CONFIDENCE = 2;
+
+    // Per name
+    final String[] names;
+    final int[] groupStarts;
+    private final Map<String, Integer> groupByName;
+
+    // Per variant
+    final double[] prices;
+    final short[] mapTiers;
+    final short[] itemLevels;
+    final short[] gemLevels;
+    final short[] gemQualities;
+    final byte[] links;
+    final byte[] flags;
+    final short[] influenceCodes;
+    final int[] iconCodes;
+
+    // Influence code 0 is no influence, icon code -1 is no icon
+    final String[] influences;
+    final String[] icons;
+    // Per influence code, the lower-cased variant and the matching item influence or null
+    private final String[] influenceLabels;
+    private final ItemInfluence[] itemInfluences;
+
+    PriceTable(String[] names, int[] groupStarts, double[] prices, short[] mapTiers, short[] itemLevels,
+               short[] gemLevels, short[] gemQualities, byte[] links, byte[] flags, short[] influenceCodes,
+               int[] iconCodes, String[] influences, String[] icons) {
+        this.names = names;
+        this.groupStarts = groupStarts;
+        this.prices = prices;
+        this.mapTiers = mapTiers;
+        this.itemLevels = itemLevels;
+        this.gemLevels = gemLevels;
+        this.gemQualities = gemQualities;
+        this.links = links;
+        this.flags = flags;
+        this.influenceCodes = influenceCodes;
+        this.iconCodes = iconCodes;
+        this.influences = influences;
+        this.icons = icons;
+        influenceLabels = new String[influences.length];
+        itemInfluences = new ItemInfluence[influences.length];
+        for (int code = 0; code < influences.length; code++) {
+            influenceLabels[code] = influences[code] == null ? null : influences[code].toLowerCase(Locale.ROOT);
+            itemInfluences[code] = toItemInfluence(influences[code]);
+        }
+        groupByName = new HashMap<>(names.length * 4 / 3 + 1);
+        for (int group = 0; group < names.length; group++) {
+            groupByName.put(names[group], group);
+        }
+    }
+
+    private static ItemInfluence toItemInfluence(String influence) {
+        if (influence == null) {
+            return ItemInfluence.NONE;
+        }
+        for (ItemInfluence itemInfluence : ItemInfluence.values()) {
+            if (itemInfluence.name().equalsIgnoreCase(influence)) {
+                return itemInfluence;
+            }
+        }
+        return null;
+    }
+
+    static PriceTable of(Map<String, ? extends List<RemoteItem>> items) {
+        int rows = 0;
+        for (List<RemoteItem> variants : items.values()) {
+            rows += variants.size();
+        }
+        String[] names = new String[items.size()];
+        int[] groupStarts = new int[items.size() + 1];
+        double[] prices = new double[rows];
+        short[] mapTiers = new short[rows];
+        short[] itemLevels = new short[rows];
+        short[] gemLevels = new short[rows];
+        short[] gemQualities = new short[rows];
+        byte[] links = new byte[rows];
+        byte[] flags = new byte[rows];
+        short[] influenceCodes = new short[rows];
+        int[] iconCodes = new int[rows];
+        Dictionary influences = new Dictionary();
+        influences.add(null);
+        Dictionary icons = new Dictionary();
+
+        int group = 0;
+        int row = 0;
+        for (Map.Entry<String, ? extends List<RemoteItem>> entry : items.entrySet()) {
+            names[group] = entry.getKey();
+            groupStarts[group++] = row;
+            for (RemoteItem variant : entry.getValue()) {
+                prices[row] = variant.getPrice();
+                mapTiers[row] = (short) variant.getMapTier();
+                itemLevels[row] = (short) variant.getItemLevel();
+                gemLevels[row] = (short) variant.getGemLevel();
+                gemQualities[row] = (short) variant.getGemQuality();
+                links[row] = (byte) variant.getLinks();
+                flags[row] = (byte) ((variant.isCorrupted() ? CORRUPTED : 0) | (variant.isLowConfidence() ? LOW_CONFIDENCE : 0));
+                influenceCodes[row] = (short) influences.add(variant.getInfluence());
+                iconCodes[row] = variant.getIconUrl() == null ? -1 : icons.add(variant.getIconUrl());
+                row++;
+            }
+        }
+        groupStarts[group] = row;
+
+        return new PriceTable(names, groupStarts, prices, mapTiers, itemLevels, gemLevels, gemQualities, links,
+                flags, influenceCodes, iconCodes, influences.toArray(), icons.toArray());
+    }
+
+    /**
+     * @return the group of the name, or -1 when poe.ninja does not know it
+     */
+    int getGroup(String name) {
+        Integer group = groupByName.get(name);
+        return group == null ? -1 : group;
+    }
+
+    int getGroupCount() {
+        return names.length;
+    }
+
+    int getRowCount() {
+        return prices.length;
+    }
+
+    String getName(int group) {
+        return names[group];
+    }
+
+    int getGroupStart(int group) {
+        return groupStarts[group];
+    }
+
+    int getGroupEnd(int group) {
+        return groupStarts[group + 1];
+    }
+
+    double getPrice(int row) {
+        return prices[row];
+    }
+
+    String getIconUrl(int row) {
+        return iconCodes[row] == -1 ? null : icons[iconCodes[row]];
+    }
+
+    int getMapTier(int row) {
+        return mapTiers[row];
+    }
+
+    int getItemLevel(int row) {
+        return itemLevels[row];
+    }
+
+    String getInfluence(int row) {
+        return influences[influenceCodes[row]];
+    }
+
+    String getInfluenceLabel(int row) {
+        return influenceLabels[influenceCodes[row]];
+    }
+
+    /**
+     * @return the item influence of the variant, or null when the variant is not an influence
+     */
+    ItemInfluence getItemInfluence(int row) {
+        return itemInfluences[influenceCodes[row]];
+    }
+
+    int getGemLevel(int row) {
+        return gemLevels[row];
+    }
+
+    int getGemQuality(int row) {
+        return gemQualities[row];
+    }
+
+    int getLinks(int row) {
+        return links[row];
+    }
+
+    boolean isCorrupted(int row) {
+        return (flags[row] & CORRUPTED) != 0;
+    }
+
+    boolean isLowConfidence(int row) {
+        return (flags[row] & LOW_CONFIDENCE) != 0;
+    }
+
+    private static class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int add(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        String[] toArray() {
+            return values.toArray(new String[0]);
+        }
+    }
+}
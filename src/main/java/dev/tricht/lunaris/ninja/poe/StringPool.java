@@ -0,0 +1,30 @@
+package dev.tricht.lunaris.ninja.poe;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonical instances of the names, variants and icon urls of poe.ninja, shared by every category
+ * and league and kept across refreshes.
+ */
+class StringPool {
+
+    // Far above the strings of a few leagues, only reached when leagues come and go for a long time
+    private static final int MAX_SIZE = 250_000;
+
+    private final Map<String, String> strings = new ConcurrentHashMap<>();
+
+    String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String canonical = strings.putIfAbsent(value, value);
+        if (canonical != null) {
+            return canonical;
+        }
+        if (strings.size() > MAX_SIZE) {
+            strings.clear();
+        }
+        return value;
+    }
+}
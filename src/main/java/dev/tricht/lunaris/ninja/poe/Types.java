@@ -1,6 +1,13 @@
 package dev.tricht.lunaris.ninja.poe;
 
+import dev.tricht.lunaris.item.Item;
+import dev.tricht.lunaris.item.ItemRarity;
+import dev.tricht.lunaris.item.types.*;
+
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 class Types {
 
@@ -32,4 +39,81 @@ class Types {
             "Beast"
     );
 
+    static List<String> allTypes = new ArrayList<>() {{
+        addAll(currencyTypes);
+        addAll(itemTypes);
+    }};
+
+    // Not loaded in the background, only when an item needs them
+    static Set<String> onDemandTypes = Set.of(
+            "HelmetEnchant",
+            "Beast"
+    );
+
+    private static final long MINUTE_IN_MILLI = 60 * 1000;
+    private static final long DEFAULT_TIME_TO_LIVE = 60 * MINUTE_IN_MILLI;
+
+    // How long a downloaded category is used before it is revalidated
+    private static final Map<String, Long> timeToLive = Map.of(
+            "Currency", 15 * MINUTE_IN_MILLI,
+            "Fragment", 30 * MINUTE_IN_MILLI,
+            "Prophecy", 3 * 60 * MINUTE_IN_MILLI,
+            "HelmetEnchant", 6 * 60 * MINUTE_IN_MILLI,
+            "Beast", 6 * 60 * MINUTE_IN_MILLI
+    );
+
+    static long getTimeToLive(String type) {
+        return timeToLive.getOrDefault(type, DEFAULT_TIME_TO_LIVE);
+    }
+
+    /**
+     * @return the categories an item can be priced from, in the order they are searched, or null when
+     * the item can be in any of them
+     */
+    static List<String> forItem(Item item) {
+        ItemType type = item.getType();
+        boolean unique = item.getRarity() == ItemRarity.UNIQUE;
+        if (type instanceof CurrencyItem) {
+            return List.of("Currency", "Fragment", "Oil", "Fossil", "Resonator", "Essence", "Incubator", "Watchstone");
+        }
+        if (type instanceof DivinitationCardItem) {
+            return List.of("DivinationCard");
+        }
+        if (type instanceof GemItem) {
+            return List.of("SkillGem");
+        }
+        if (type instanceof MapItem) {
+            return unique ? List.of("UniqueMap", "Map") : List.of("Map", "UniqueMap");
+        }
+        if (type instanceof FragmentItem) {
+            return List.of("Fragment");
+        }
+        if (type instanceof ScarabItem) {
+            return List.of("Scarab");
+        }
+        if (type instanceof WeaponItem) {
+            return unique ? List.of("UniqueWeapon") : List.of("BaseType");
+        }
+        if (type instanceof EquipmentItem) {
+            if (!unique) {
+                return List.of("BaseType");
+            }
+            switch (((EquipmentItem) type).getSlot()) {
+                case FLASK:
+                    return List.of("UniqueFlask");
+                case JEWEL:
+                case ABYSS_JEWEL:
+                    return List.of("UniqueJewel");
+                case AMULET:
+                case RING:
+                case BELT:
+                    return List.of("UniqueAccessory");
+                case QUIVER:
+                    return List.of("UniqueArmour", "UniqueAccessory");
+                default:
+                    return List.of("UniqueArmour");
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,178 @@
+package dev.tricht.lunaris.ninja.poe;
+
+import dev.tricht.lunaris.item.ItemInfluence;
+
+import java.util.*;
+
+/**
+ * The poe.ninja variants of one item name, indexed for the lookups of ItemResolver.getItem().
+ *
+ * The selection rules are those of a linear scan over the variants in file order: exact lookups
+ * return the first match, nearest lookups prefer the smallest difference and then the value that
+ * occurs first.
+ */
+class VariantIndex {
+
+    private final PriceTable table;
+    private final int start;
+    private final int end;
+
+    private final Map<Integer, Integer> firstByMapTier = new HashMap<>();
+    private final Map<Integer, Integer> firstByLinks = new HashMap<>();
+    private int lastWithoutLinks = -1;
+
+    // By ItemInfluence ordinal
+    private final Nearest[] itemLevelsByInfluence = new Nearest[ItemInfluence.values().length];
+
+    private Nearest gemLevels;
+    private final Map<Integer, Nearest> gemQualitiesByLevel = new HashMap<>();
+    private final Map<Long, Corruption> corruptionByGem = new HashMap<>();
+
+    /**
+     * Indexes the rows of one name in the table, all lookups return a row or -1.
+     */
+    VariantIndex(PriceTable table, int group) {
+        this.table = table;
+        this.start = table.getGroupStart(group);
+        this.end = table.getGroupEnd(group);
+
+        Map<ItemInfluence, TreeMap<Integer, Integer>> itemLevels = new EnumMap<>(ItemInfluence.class);
+        TreeMap<Integer, Integer> levels = new TreeMap<>();
+        Map<Integer, TreeMap<Integer, Integer>> qualities = new HashMap<>();
+
+        for (int row = start; row < end; row++) {
+            firstByMapTier.putIfAbsent(table.getMapTier(row), row);
+            firstByLinks.putIfAbsent(table.getLinks(row), row);
+            if (table.getLinks(row) == 0) {
+                lastWithoutLinks = row;
+            }
+
+            ItemInfluence influence = table.getItemInfluence(row);
+            if (influence != null) {
+                itemLevels.computeIfAbsent(influence, key -> new TreeMap<>()).putIfAbsent(table.getItemLevel(row), row);
+            }
+
+            int gemLevel = table.getGemLevel(row);
+            int gemQuality = table.getGemQuality(row);
+            levels.putIfAbsent(gemLevel, row);
+            qualities.computeIfAbsent(gemLevel, key -> new TreeMap<>()).putIfAbsent(gemQuality, row);
+            int first = row;
+            corruptionByGem.computeIfAbsent(gemKey(gemLevel, gemQuality), key -> new Corruption(first))
+                    .add(row, table.isCorrupted(row));
+        }
+
+        for (Map.Entry<ItemInfluence, TreeMap<Integer, Integer>> entry : itemLevels.entrySet()) {
+            itemLevelsByInfluence[entry.getKey().ordinal()] = new Nearest(entry.getValue());
+        }
+        gemLevels = new Nearest(levels);
+        for (Map.Entry<Integer, TreeMap<Integer, Integer>> entry : qualities.entrySet()) {
+            gemQualitiesByLevel.put(entry.getKey(), new Nearest(entry.getValue()));
+        }
+    }
+
+    int first() {
+        return start;
+    }
+
+    int size() {
+        return end - start;
+    }
+
+    int findMapTier(int tier) {
+        return firstByMapTier.getOrDefault(tier, -1);
+    }
+
+    /**
+     * @return the first variant with exactly these links, otherwise the last variant without links
+     */
+    int findLinks(int links) {
+        return firstByLinks.getOrDefault(links, lastWithoutLinks);
+    }
+
+    int findItemLevel(ItemInfluence influence, int itemLevel) {
+        Nearest itemLevels = itemLevelsByInfluence[influence.ordinal()];
+        if (itemLevels == null) {
+            return -1;
+        }
+        return itemLevels.find(itemLevel);
+    }
+
+    /**
+     * Closest gem level, then the closest quality at that level, then the last variant with the same
+     * corruption or the first variant when there is none.
+     */
+    int findGem(int level, int quality, boolean corrupted) {
+        int chosenLevel = table.getGemLevel(gemLevels.find(level));
+        int chosenQuality = table.getGemQuality(gemQualitiesByLevel.get(chosenLevel).find(quality));
+        return corruptionByGem.get(gemKey(chosenLevel, chosenQuality)).find(corrupted);
+    }
+
+    private static long gemKey(int level, int quality) {
+        return ((long) level << 32) | (quality & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Distinct values in sorted order, each with the row of its first variant.
+     */
+    private static class Nearest {
+        private final int[] values;
+        private final int[] firstIndices;
+
+        Nearest(TreeMap<Integer, Integer> firstIndexByValue) {
+            values = new int[firstIndexByValue.size()];
+            firstIndices = new int[values.length];
+            int i = 0;
+            for (Map.Entry<Integer, Integer> entry : firstIndexByValue.entrySet()) {
+                values[i] = entry.getKey();
+                firstIndices[i++] = entry.getValue();
+            }
+        }
+
+        /**
+         * @return the row of the value closest to target, on a tie the value that occurs first
+         */
+        int find(int target) {
+            int position = Arrays.binarySearch(values, target);
+            if (position >= 0) {
+                return firstIndices[position];
+            }
+            int above = -position - 1;
+            int below = above - 1;
+            if (below < 0) {
+                return firstIndices[above];
+            }
+            if (above == values.length) {
+                return firstIndices[below];
+            }
+            long belowDistance = (long) target - values[below];
+            long aboveDistance = (long) values[above] - target;
+            if (belowDistance != aboveDistance) {
+                return belowDistance < aboveDistance ? firstIndices[below] : firstIndices[above];
+            }
+            return Math.min(firstIndices[below], firstIndices[above]);
+        }
+    }
+
+    private static class Corruption {
+        private final int first;
+        private int lastCorrupted = -1;
+        private int lastUncorrupted = -1;
+
+        Corruption(int first) {
+            this.first = first;
+        }
+
+        void add(int row, boolean corrupted) {
+            if (corrupted) {
+                lastCorrupted = row;
+            } else {
+                lastUncorrupted = row;
+            }
+        }
+
+        int find(boolean corrupted) {
+            int row = corrupted ? lastCorrupted : lastUncorrupted;
+            return row != -1 ? row : first;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package dev.tricht.lunaris.com.pathofexile;
+
+import dev.tricht.lunaris.com.pathofexile.response.Affix;
+import dev.tricht.lunaris.com.pathofexile.response.AffixGroup;
+import dev.tricht.lunaris.com.pathofexile.response.StatsResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AffixIndexTest {
+
+    AffixIndex index = new AffixIndex(stats(
+            group("Explicit",
+                    affix("explicit.stat_3299347043", "+# to maximum Life"),
+                    affix("explicit.stat_1050105434", "+# to maximum Mana"),
+                    affix("explicit.stat_4052037485", "+# to maximum Energy Shield (Local)"),
+                    affix("explicit.stat_2974417149", "#% increased Spell Damage"),
+                    affix("explicit.stat_1037193709", "Adds # to # Cold Damage"),
+                    affix("explicit.stat_3593843976", "#% of Physical Attack Damage Leeched as Life"),
+                    affix("explicit.stat_2923486259", "#% to Chaos Resistance"),
+                    affix("explicit.stat_1181129483", "#% increased Damage per # Strength")
+            ),
+            group("Implicit",
+                    affix("implicit.stat_3261801346", "+# to Dexterity")
+            ),
+            group("Crafted",
+                    affix("crafted.stat_3299347043", "+# to maximum Life")
+            )
+    ));
+
+    @Test
+    void findsExplicitAffixWithValue() {
+        AffixIndex.Match match = index.find("+62 to maximum Life");
+
+        Assertions.assertEquals("explicit.stat_3299347043", match.getId());
+        Assertions.assertEquals(62, match.getMinimum());
+    }
+
+    @Test
+    void findsAffixByModType() {
+        Assertions.assertEquals("crafted.stat_3299347043", index.find("+50 to maximum Life (crafted)").getId());
+        Assertions.assertEquals("implicit.stat_3261801346", index.find("+24 to Dexterity (implicit)").getId());
+    }
+
+    @Test
+    void findsLocalAffix() {
+        Assertions.assertEquals("explicit.stat_4052037485", index.find("+25 to maximum Energy Shield").getId());
+    }
+
+    @Test
+    void keepsNegativeValue() {
+        AffixIndex.Match match = index.find("-17% to Chaos Resistance");
+
+        Assertions.assertEquals("explicit.stat_2923486259", match.getId());
+        Assertions.assertEquals(-17, match.getMinimum());
+    }
+
+    @Test
+    void findsAffixWithoutSign() {
+        AffixIndex.Match match = index.find("+17% to Chaos Resistance");
+
+        Assertions.assertEquals("explicit.stat_2923486259", match.getId());
+        Assertions.assertEquals(17, match.getMinimum());
+    }
+
+    @Test
+    void usesAverageOfRange() {
+        AffixIndex.Match match = index.find("Adds 130 to 185 Cold Damage");
+
+        Assertions.assertEquals("explicit.stat_1037193709", match.getId());
+        Assertions.assertEquals(157, match.getMinimum());
+    }
+
+    @Test
+    void usesFirstValueWhenNotRange() {
+        AffixIndex.Match match = index.find("1% increased Damage per 15 Strength");
+
+        Assertions.assertEquals("explicit.stat_1181129483", match.getId());
+        Assertions.assertEquals(1, match.getMinimum());
+    }
+
+    @Test
+    void findsDecimalAffix() {
+        Assertions.assertEquals("explicit.stat_3593843976", index.find("0.2% of Physical Attack Damage Leeched as Life").getId());
+    }
+
+    @Test
+    void returnsNullForUnknownAffix() {
+        Assertions.assertNull(index.find("Attacks with this Weapon Maim on hit"));
+    }
+
+    private static StatsResponse stats(AffixGroup... groups) {
+        StatsResponse statsResponse = new StatsResponse();
+        statsResponse.setAffixGroup(List.of(groups));
+        return statsResponse;
+    }
+
+    private static AffixGroup group(String label, Affix... affixes) {
+        AffixGroup group = new AffixGroup();
+        group.setLabel(label);
+        group.setAffixResponses(new ArrayList<>(List.of(affixes)));
+        return group;
+    }
+
+    private static Affix affix(String id, String text) {
+        Affix affix = new Affix();
+        affix.setId(id);
+        affix.setText(text);
+        return affix;
+    }
+}
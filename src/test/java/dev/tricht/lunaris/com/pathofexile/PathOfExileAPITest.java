@@ -0,0 +1,66 @@
+package dev.tricht.lunaris.com.pathofexile;
+
+import dev.tricht.lunaris.com.pathofexile.response.StatsResponse;
+import dev.tricht.lunaris.com.pathofexile.response.TradeResult;
+import dev.tricht.lunaris.item.Item;
+import dev.tricht.lunaris.item.ItemParser;
+import okhttp3.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.InterruptedIOException;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PathOfExileAPITest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    void sharesIdenticalSearchesInFlight() throws Exception {
+        CountDownLatch respond = new CountDownLatch(1);
+        AtomicInteger searches = new AtomicInteger();
+        OkHttpClient.Builder clientBuilder = new OkHttpClient.Builder().addInterceptor(chain -> {
+            try {
+                respond.await();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+            String body;
+            if (chain.request().url().encodedPath().startsWith("/api/trade/search")) {
+                searches.incrementAndGet();
+                body = "{\"id\":\"abc\",\"total\":\"1\",\"result\":[\"1\"]}";
+            } else {
+                body = "{\"result\":[{\"listing\":{\"price\":{\"amount\":1,\"currency\":\"chaos\"}}}]}";
+            }
+            return new Response.Builder()
+                    .request(chain.request())
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(200)
+                    .message("OK")
+                    .body(ResponseBody.create(body, MediaType.get("application/json")))
+                    .build();
+        });
+        StatsResponse stats = new StatsResponse();
+        stats.setAffixGroup(Collections.emptyList());
+        PathOfExileAPI api = new PathOfExileAPI(stats, clientBuilder, new RateLimiter(new File(directory, "rate-limits.properties")));
+        api.setLeague("Standard");
+        Item item = new ItemParser("Rarity: Currency\nChaos Orb\n--------\nStack Size: 10/10\n".split("\n")).parse();
+
+        CompletableFuture<TradeResult> first = api.find(item);
+        CompletableFuture<TradeResult> second = api.find(item);
+        Assertions.assertEquals(1, api.getCoalescedSearches());
+        respond.countDown();
+
+        TradeResult result = first.get(5, TimeUnit.SECONDS);
+        Assertions.assertSame(result, second.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, result.getListings().size());
+        Assertions.assertEquals(1, searches.get());
+    }
+}
@@ -0,0 +1,68 @@
+package dev.tricht.lunaris.com.pathofexile;
+
+import okhttp3.Headers;
+import okhttp3.HttpUrl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RateLimiterTest {
+
+    @Test
+    void delaysCallsWhenWindowIsFull() {
+        RateLimiter.Policy policy = new RateLimiter.Policy();
+        Assertions.assertEquals(0, policy.reserve(0));
+        policy.update(200, limits("3:4:60", "1:4:0"), 0);
+
+        Assertions.assertEquals(0, policy.reserve(100));
+        Assertions.assertEquals(0, policy.reserve(200));
+        long wait = policy.reserve(300);
+        Assertions.assertTrue(wait >= 3700 && wait <= 4000, "waited " + wait);
+    }
+
+    @Test
+    void reusesReleasedSlots() {
+        RateLimiter.Policy policy = new RateLimiter.Policy();
+        policy.reserve(0);
+        policy.update(200, limits("2:4:60", "1:4:0"), 0);
+
+        Assertions.assertEquals(0, policy.reserve(100));
+        policy.release(100);
+        Assertions.assertEquals(0, policy.reserve(150));
+        Assertions.assertTrue(policy.reserve(200) > 0);
+    }
+
+    @Test
+    void countsHitsMadeElsewhere() {
+        RateLimiter.Policy policy = new RateLimiter.Policy();
+        policy.reserve(0);
+        policy.update(200, limits("3:4:60", "3:4:0"), 0);
+
+        Assertions.assertTrue(policy.reserve(100) > 0);
+    }
+
+    @Test
+    void blocksDuringPenalty() {
+        RateLimiter.Policy policy = new RateLimiter.Policy();
+        policy.reserve(0);
+
+        Assertions.assertTrue(policy.update(429, limits("3:4:60", "4:4:60"), 0));
+        Assertions.assertEquals(60_000, policy.getBlockedUntil());
+        Assertions.assertTrue(policy.reserve(1000) > RateLimiter.MAX_WAIT_MILLIS);
+    }
+
+    @Test
+    void limitsOnlyTradeCalls() {
+        Assertions.assertEquals("search", RateLimiter.getPolicyName(HttpUrl.get("https://www.pathofexile.com/api/trade/search/Metamorph")));
+        Assertions.assertEquals("fetch", RateLimiter.getPolicyName(HttpUrl.get("https://www.pathofexile.com/api/trade/fetch/a,b?query=c")));
+        Assertions.assertNull(RateLimiter.getPolicyName(HttpUrl.get("http://api.pathofexile.com/trade/data/stats")));
+    }
+
+    private static Headers limits(String limit, String state) {
+        return Headers.of(
+                "X-Rate-Limit-Policy", "trade-search-request-limit",
+                "X-Rate-Limit-Rules", "Ip",
+                "X-Rate-Limit-Ip", limit,
+                "X-Rate-Limit-Ip-State", state
+        );
+    }
+}
@@ -0,0 +1,54 @@
+package dev.tricht.lunaris.com.pathofexile;
+
+import dev.tricht.lunaris.com.pathofexile.response.Affix;
+import dev.tricht.lunaris.com.pathofexile.response.AffixGroup;
+import dev.tricht.lunaris.com.pathofexile.response.StatsResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.List;
+
+public class StatsCatalogTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    void keepsOnlyIndexedGroups() {
+        StatsResponse statsResponse = new StatsResponse();
+        statsResponse.setAffixGroup(List.of(
+                group("Explicit", affix("explicit.stat_3299347043", "+# to maximum Life")),
+                group("Pseudo", affix("pseudo.pseudo_total_life", "+# total maximum Life"))
+        ));
+        File file = new File(directory, StatsCatalog.FILE_NAME);
+        StatsCatalog.write(file, StatsCatalog.encode(statsResponse));
+
+        StatsResponse read = StatsCatalog.decode(StatsCatalog.read(file));
+
+        Assertions.assertEquals(1, read.getAffixGroup().size());
+        Assertions.assertEquals("Explicit", read.getAffixGroup().get(0).getLabel());
+        Assertions.assertEquals("explicit.stat_3299347043", new AffixIndex(read).find("+62 to maximum Life").getId());
+    }
+
+    @Test
+    void ignoresOtherFiles() {
+        Assertions.assertNull(StatsCatalog.read(new File(directory, StatsCatalog.FILE_NAME)));
+        Assertions.assertNull(StatsCatalog.decode(new byte[]{0, 0, 0, 0, 0, 0, 0, 1}));
+    }
+
+    private static AffixGroup group(String label, Affix... affixes) {
+        AffixGroup group = new AffixGroup();
+        group.setLabel(label);
+        group.setAffixResponses(List.of(affixes));
+        return group;
+    }
+
+    private static Affix affix(String id, String text) {
+        Affix affix = new Affix();
+        affix.setId(id);
+        affix.setText(text);
+        return affix;
+    }
+}
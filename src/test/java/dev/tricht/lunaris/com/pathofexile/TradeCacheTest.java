@@ -0,0 +1,45 @@
+package dev.tricht.lunaris.com.pathofexile;
+
+import dev.tricht.lunaris.com.pathofexile.response.SearchResponse;
+import dev.tricht.lunaris.com.pathofexile.response.TradeResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class TradeCacheTest {
+
+    @Test
+    void returnsResultUntilItExpires() {
+        TradeCache cache = new TradeCache(10, 1000);
+        TradeResult result = new TradeResult(new SearchResponse(), List.of());
+        String key = TradeCache.key("Metamorph", "{\"query\":{}}");
+
+        Assertions.assertNull(cache.get(key, 0));
+        cache.put(key, result, 0);
+
+        Assertions.assertSame(result, cache.get(key, 999));
+        Assertions.assertNull(cache.get(key, 1000));
+        Assertions.assertEquals(1, cache.getHits());
+        Assertions.assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        TradeCache cache = new TradeCache(2, 1000);
+        cache.put("a", new TradeResult(null, List.of()), 0);
+        cache.put("b", new TradeResult(null, List.of()), 0);
+        cache.get("a", 0);
+        cache.put("c", new TradeResult(null, List.of()), 0);
+
+        Assertions.assertNotNull(cache.get("a", 0));
+        Assertions.assertNull(cache.get("b", 0));
+        Assertions.assertNotNull(cache.get("c", 0));
+    }
+
+    @Test
+    void keysDependOnLeague() {
+        Assertions.assertEquals(TradeCache.key("Metamorph", "{}"), TradeCache.key("Metamorph", "{}"));
+        Assertions.assertNotEquals(TradeCache.key("Metamorph", "{}"), TradeCache.key("Standard", "{}"));
+    }
+}
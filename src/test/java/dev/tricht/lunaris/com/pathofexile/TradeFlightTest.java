@@ -0,0 +1,53 @@
+package dev.tricht.lunaris.com.pathofexile;
+
+import dev.tricht.lunaris.com.pathofexile.response.TradeResult;
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class TradeFlightTest {
+
+    private final OkHttpClient client = new OkHttpClient();
+
+    @Test
+    void cancelsCallsWhenEveryCallerCancelled() {
+        TradeFlight flight = new TradeFlight();
+        CompletableFuture<TradeResult> first = flight.join();
+        CompletableFuture<TradeResult> second = flight.join();
+        Call call = newCall();
+        Assertions.assertTrue(flight.add(call));
+
+        first.cancel(false);
+        Assertions.assertFalse(call.isCanceled());
+        Assertions.assertFalse(second.isDone());
+
+        second.cancel(false);
+        Assertions.assertTrue(call.isCanceled());
+        Assertions.assertNull(flight.join());
+        Call late = newCall();
+        Assertions.assertFalse(flight.add(late));
+        Assertions.assertTrue(late.isCanceled());
+    }
+
+    @Test
+    void sharesResultWithEveryCaller() {
+        TradeFlight flight = new TradeFlight();
+        CompletableFuture<TradeResult> first = flight.join();
+        CompletableFuture<TradeResult> second = flight.join();
+        TradeResult result = new TradeResult(null, List.of());
+
+        flight.complete(result, null);
+
+        Assertions.assertSame(result, first.join());
+        Assertions.assertSame(result, second.join());
+    }
+
+    private Call newCall() {
+        return client.newCall(new Request.Builder().url("https://www.pathofexile.com/api/trade/fetch/a").build());
+    }
+}
@@ -0,0 +1,28 @@
+package dev.tricht.lunaris.com.pathofexile.response;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.tricht.lunaris.ninja.poe.CurrencyRates;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+public class ListingResponseTest {
+
+    @Test
+    void convertsPricesTheRatesKnow() throws Exception {
+        ListingResponse response = new ObjectMapper().readValue("{\"result\": [" +
+                "{\"listing\": {\"price\": {\"amount\": 2, \"currency\": \"exa\"}}}," +
+                "{\"listing\": {\"price\": {\"amount\": 3, \"currency\": \"unknown\"}}}," +
+                "{\"listing\": {}}," +
+                "{}" +
+                "]}", ListingResponse.class);
+
+        response.convertPrices(new CurrencyRates(Map.of("chaos", 1.0, "exa", 150.25)));
+
+        Assertions.assertEquals(300.5, response.getResult().get(0).getChaosValue());
+        Assertions.assertNull(response.getResult().get(1).getChaosValue());
+        Assertions.assertNull(response.getResult().get(2).getChaosValue());
+        Assertions.assertNull(response.getResult().get(3).getListing());
+    }
+}
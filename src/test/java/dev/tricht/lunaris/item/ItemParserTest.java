@@ -560,4 +560,104 @@ public class ItemParserTest {
         Assertions.assertEquals(1, item.getAffixes().size());
         Assertions.assertEquals(5000, item.getProps().getStackSize());
     }
+
+    @Test
+    void parsesClipboardTextWithWindowsLineEndings() {
+        Item item = new ItemParser("Rarity: Currency\r\n" +
+                "Chaos Orb\r\n" +
+                "--------\r\n" +
+                "Stack Size: 10/10\r\n" +
+                "--------\r\n" +
+                "Reforges a rare item with new random modifiers\r\n" +
+                "--------\r\n" +
+                "Right click this item then left click a rare item to apply it.\r\n" +
+                "Shift click to unstack.\r\n"
+        ).parse();
+
+        Assertions.assertEquals("Chaos Orb", item.getBase());
+        Assertions.assertTrue(item.getType() instanceof CurrencyItem);
+        Assertions.assertEquals(10, item.getProps().getStackSize());
+        Assertions.assertEquals("Reforges a rare item with new random modifiers", item.getAffixes().get(0));
+    }
+
+    @Test
+    void parsesPartsForMagicBeltWithSuffix() {
+        Item item = parse("Rarity: Magic\n" +
+                "Leather Belt of the Whale\n" +
+                "--------\n" +
+                "Requirements:\n" +
+                "Level: 30\n" +
+                "--------\n" +
+                "Item Level: 74\n" +
+                "--------\n" +
+                "+31 to maximum Life (implicit)\n" +
+                "--------\n" +
+                "+48 to maximum Life\n"
+        );
+
+        Assertions.assertSame(ItemRarity.MAGIC, item.getRarity());
+        Assertions.assertEquals("Leather Belt", item.getBase());
+        Assertions.assertTrue(item.getType() instanceof EquipmentItem);
+        Assertions.assertEquals(EquipmentSlot.BELT, ((EquipmentItem) item.getType()).getSlot());
+    }
+
+    @Test
+    void parsesPartsForRareRingmailAsBodyArmour() {
+        Item item = parse("Rarity: Rare\n" +
+                "Grim Shell\n" +
+                "Full Ringmail\n" +
+                "--------\n" +
+                "Armour: 157\n" +
+                "Energy Shield: 30\n" +
+                "--------\n" +
+                "Item Level: 42\n" +
+                "--------\n" +
+                "+40 to maximum Life\n"
+        );
+
+        Assertions.assertEquals("Full Ringmail", item.getBase());
+        Assertions.assertTrue(item.getType() instanceof EquipmentItem);
+        Assertions.assertEquals(EquipmentSlot.BODY_ARMOUR, ((EquipmentItem) item.getType()).getSlot());
+    }
+
+    @Test
+    void parsesPartsForFragment() {
+        Item item = parse("Rarity: Normal\n" +
+                "Fragment of the Hydra\n" +
+                "--------\n" +
+                "Can be used in a personal Map Device to add modifiers to a Map.\n"
+        );
+
+        Assertions.assertEquals("Fragment of the Hydra", item.getBase());
+        Assertions.assertTrue(item.getType() instanceof FragmentItem);
+    }
+
+    @Test
+    void parsesPartsForRareRingWithMultipleInfluences() {
+        Item item = parse("Rarity: Rare\n" +
+                "Woe Loop\n" +
+                "Two-Stone Ring\n" +
+                "--------\n" +
+                "Requirements:\n" +
+                "Level: 68\n" +
+                "--------\n" +
+                "Item Level: 86\n" +
+                "--------\n" +
+                "+14% to Fire and Cold Resistances (implicit)\n" +
+                "--------\n" +
+                "+48 to maximum Life\n" +
+                "+37% to Lightning Resistance\n" +
+                "Adds 3 to 6 Physical Damage to Attacks\n" +
+                "--------\n" +
+                "Hunter Item\n" +
+                "Warlord Item\n"
+        );
+
+        Assertions.assertEquals("Two-Stone Ring", item.getBase());
+        Assertions.assertEquals(EquipmentSlot.RING, ((EquipmentItem) item.getType()).getSlot());
+        Assertions.assertEquals(86, item.getProps().getItemLevel());
+        Assertions.assertTrue(item.getProps().getInfluences().contains(ItemInfluence.HUNTER));
+        Assertions.assertTrue(item.getProps().getInfluences().contains(ItemInfluence.WARLORD));
+        Assertions.assertEquals(3, item.getAffixes().size());
+    }
 }
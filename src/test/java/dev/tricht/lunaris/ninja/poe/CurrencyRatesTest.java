@@ -0,0 +1,29 @@
+package dev.tricht.lunaris.ninja.poe;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class CurrencyRatesTest {
+
+    @Test
+    void convertsTradeCurrencyToChaos() {
+        RemoteItem exalted = new RemoteItem();
+        exalted.setName("Exalted Orb");
+        exalted.setPrice(152.5);
+        RemoteItem splinter = new RemoteItem();
+        splinter.setName("Splinter of Xoph");
+        splinter.setPrice(0.8);
+        CurrencyRates rates = CurrencyRates.of(List.of(
+                PriceTable.of(Map.of(exalted.getName(), List.of(exalted))),
+                PriceTable.of(Map.of(splinter.getName(), List.of(splinter)))
+        ));
+
+        Assertions.assertEquals(305.0, rates.toChaos(2, "exa"));
+        Assertions.assertEquals(140.0, rates.toChaos(140, "chaos"));
+        Assertions.assertEquals(8.0, rates.toChaos(10, "splinter-xoph"));
+        Assertions.assertNull(rates.toChaos(3, "divine"));
+    }
+}
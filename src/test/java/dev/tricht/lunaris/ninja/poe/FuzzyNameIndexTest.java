@@ -0,0 +1,41 @@
+package dev.tricht.lunaris.ninja.poe;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FuzzyNameIndexTest {
+
+    private static final String[] NAMES = {
+            "Leather Belt", "Two-Stone Ring", "Jeweller's Orb", "Swift Affliction Support", "Belt", "Goldrim"
+    };
+
+    FuzzyNameIndex index = new FuzzyNameIndex(NAMES);
+
+    @Test
+    void ignoresSuperiorAndPunctuation() {
+        Assertions.assertEquals(2, index.find("Superior Jewellers Orb"));
+    }
+
+    @Test
+    void findsNameWithinEditDistance() {
+        Assertions.assertEquals(3, index.find("Swift Afliction Support"));
+        Assertions.assertEquals(1, index.find("Two Stone Rign"));
+    }
+
+    @Test
+    void findsLongestContainedName() {
+        Assertions.assertEquals(0, index.find("Stalwart Leather Belt of the Whale"));
+    }
+
+    @Test
+    void rejectsDistantNames() {
+        Assertions.assertEquals(-1, index.find("Goldwyrm"));
+        Assertions.assertEquals(-1, index.find("Chaos Orb"));
+    }
+
+    @Test
+    void boundsDistance() {
+        Assertions.assertEquals(3, FuzzyNameIndex.distance("kitten", "sitting", 5));
+        Assertions.assertEquals(2, FuzzyNameIndex.distance("kitten", "sitting", 1));
+    }
+}
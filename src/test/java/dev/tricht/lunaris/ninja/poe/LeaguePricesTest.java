@@ -0,0 +1,46 @@
+package dev.tricht.lunaris.ninja.poe;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+
+public class LeaguePricesTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    void warmerSkipsOnDemandCategories() throws Exception {
+        write("Currency", "{\"lines\":[{\"currencyTypeName\":\"Exalted Orb\",\"chaosEquivalent\":150}]}");
+        write("Beast", "{\"lines\":[{\"name\":\"Vivid Vulture\",\"chaosValue\":40}]}");
+        LeaguePrices prices = new LeaguePrices(null, new StringPool(), directory, null);
+
+        Assertions.assertFalse(prices.isWarmed());
+        prices.warm();
+
+        Assertions.assertTrue(prices.isWarmed());
+        Assertions.assertTrue(prices.isLoaded("Currency"));
+        Assertions.assertFalse(prices.isLoaded("Beast"));
+        Assertions.assertNotEquals(-1, prices.get("Beast").getGroup("Vivid Vulture"));
+        Assertions.assertTrue(prices.isLoaded("Beast"));
+    }
+
+    @Test
+    void currencyRatesDoNotLoadCategories() throws Exception {
+        write("Currency", "{\"lines\":[{\"currencyTypeName\":\"Exalted Orb\",\"chaosEquivalent\":150}]}");
+        LeaguePrices prices = new LeaguePrices(null, new StringPool(), directory, null);
+
+        Assertions.assertNull(prices.getLoadedCurrencyRates());
+        Assertions.assertFalse(prices.isLoaded("Currency"));
+
+        prices.get("Currency");
+        Assertions.assertEquals(300.0, prices.getLoadedCurrencyRates().toChaos(2, "exa"));
+    }
+
+    private void write(String type, String json) throws Exception {
+        Files.writeString(new File(directory, type + ".json").toPath(), json);
+    }
+}
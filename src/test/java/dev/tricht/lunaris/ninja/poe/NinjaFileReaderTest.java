@@ -0,0 +1,54 @@
+package dev.tricht.lunaris.ninja.poe;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+
+public class NinjaFileReaderTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    void readsCurrencyOverview() throws Exception {
+        Root root = read("{\"lines\":[{\"currencyTypeName\":\"Exalted Orb\",\"pay\":{\"id\":0,\"value\":0.006},"
+                + "\"chaosEquivalent\":165.5,\"paySparkLine\":{\"data\":[0,1.2],\"totalChange\":1.2},"
+                + "\"lowConfidenceSparkline\":{\"data\":[0,null,0],\"totalChange\":0},\"detailsId\":\"exalted-orb\"}],"
+                + "\"currencyDetails\":[{\"id\":2,\"icon\":\"https://web.poecdn.com/exalted.png\",\"name\":\"Exalted Orb\"}]}");
+
+        RemoteItem item = root.getItems().get(0);
+        Assertions.assertEquals("Exalted Orb", item.getName());
+        Assertions.assertEquals(165.5, item.getPrice());
+        Assertions.assertFalse(item.isLowConfidence());
+        Assertions.assertEquals("https://web.poecdn.com/exalted.png", root.getCurrencyDetails().get(0).getIconUrl());
+    }
+
+    @Test
+    void readsItemOverview() throws Exception {
+        Root root = read("{\"lines\":["
+                + "{\"name\":\"Two-Stone Ring\",\"levelRequired\":84,\"variant\":\"Shaper\",\"chaosValue\":12.0,"
+                + "\"sparkline\":{\"data\":[],\"totalChange\":0},\"lowConfidenceSparkline\":{\"data\":[0,3.5],\"totalChange\":3.5},"
+                + "\"explicitModifiers\":[{\"text\":\"+1 to Level\",\"optional\":false}]},"
+                + "{\"name\":\"Goldrim\",\"links\":0,\"chaosValue\":1.0,\"corrupted\":true,"
+                + "\"sparkline\":{\"data\":[1,2]},\"lowConfidenceSparkline\":{\"data\":[1,2]}}"
+                + "]}");
+
+        RemoteItem ring = root.getItems().get(0);
+        Assertions.assertEquals(84, ring.getItemLevel());
+        Assertions.assertEquals("Shaper", ring.getInfluence());
+        Assertions.assertTrue(ring.isLowConfidence());
+        RemoteItem goldrim = root.getItems().get(1);
+        Assertions.assertTrue(goldrim.isCorrupted());
+        Assertions.assertFalse(goldrim.isLowConfidence());
+        Assertions.assertNull(root.getCurrencyDetails());
+    }
+
+    private Root read(String json) throws Exception {
+        File file = new File(directory, "overview.json");
+        Files.writeString(file.toPath(), json);
+        return NinjaFileReader.read(file, new StringPool());
+    }
+}
@@ -0,0 +1,68 @@
+package dev.tricht.lunaris.ninja.poe;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PriceSnapshotTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    void roundTripsItems() {
+        RemoteItem gem = new RemoteItem();
+        gem.setName("Empower Support");
+        gem.setPrice(1234.5);
+        gem.setGemLevel(4);
+        gem.setGemQuality(20);
+        gem.setCorrupted(true);
+        gem.setLowConfidence(true);
+        RemoteItem base = new RemoteItem();
+        base.setName("Two-Stone Ring");
+        base.setPrice(12);
+        base.setIconUrl("https://web.poecdn.com/ring.png");
+        base.setItemLevel(84);
+        base.setInfluence("Shaper");
+
+        Map<String, ArrayList<RemoteItem>> items = new HashMap<>();
+        items.put(gem.getName(), new ArrayList<>(List.of(gem)));
+        items.put(base.getName(), new ArrayList<>(List.of(base)));
+        File snapshot = new File(directory, "Currency" + PriceSnapshot.EXTENSION);
+        PriceSnapshot.write(snapshot, PriceTable.of(items), 1000);
+        PriceTable table = PriceSnapshot.read(snapshot, new StringPool(), 1000L);
+
+        int gemRow = table.getGroupStart(table.getGroup("Empower Support"));
+        Assertions.assertEquals(1234.5, table.getPrice(gemRow));
+        Assertions.assertEquals(4, table.getGemLevel(gemRow));
+        Assertions.assertEquals(20, table.getGemQuality(gemRow));
+        Assertions.assertTrue(table.isCorrupted(gemRow));
+        Assertions.assertTrue(table.isLowConfidence(gemRow));
+        Assertions.assertNull(table.getInfluence(gemRow));
+        Assertions.assertNull(table.getIconUrl(gemRow));
+        int baseRow = table.getGroupStart(table.getGroup("Two-Stone Ring"));
+        Assertions.assertEquals(12, table.getPrice(baseRow));
+        Assertions.assertEquals(84, table.getItemLevel(baseRow));
+        Assertions.assertEquals("Shaper", table.getInfluence(baseRow));
+        Assertions.assertEquals("https://web.poecdn.com/ring.png", table.getIconUrl(baseRow));
+        Assertions.assertFalse(table.isCorrupted(baseRow));
+    }
+
+    @Test
+    void isOnlyUsedForItsSourceVersion() {
+        File snapshot = new File(directory, "Currency" + PriceSnapshot.EXTENSION);
+        PriceSnapshot.write(snapshot, PriceTable.of(new HashMap<>()), 2000);
+
+        Assertions.assertNotNull(PriceSnapshot.read(snapshot, new StringPool(), 2000L));
+        Assertions.assertNotNull(PriceSnapshot.read(snapshot, new StringPool(), null));
+        // The snapshot being newer than the file does not make it the table of that file
+        Assertions.assertNull(PriceSnapshot.read(snapshot, new StringPool(), 1000L));
+        Assertions.assertNull(PriceSnapshot.read(snapshot, new StringPool(), 3000L));
+    }
+}
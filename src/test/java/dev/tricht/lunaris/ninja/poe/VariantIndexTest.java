@@ -0,0 +1,115 @@
+package dev.tricht.lunaris.ninja.poe;
+
+import dev.tricht.lunaris.item.ItemInfluence;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class VariantIndexTest {
+
+    private static final String[] INFLUENCES = {null, "Shaper", "Elder", "Crusader", "2 Jewels"};
+
+    @Test
+    void findsSameItemLevelAsLinearScan() {
+        Random random = new Random(1);
+        for (int round = 0; round < 200; round++) {
+            List<RemoteItem> variants = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(30); i++) {
+                RemoteItem variant = new RemoteItem();
+                variant.setItemLevel(80 + random.nextInt(8));
+                variant.setInfluence(INFLUENCES[random.nextInt(INFLUENCES.length)]);
+                variants.add(variant);
+            }
+            VariantIndex index = index(variants);
+            for (ItemInfluence influence : new ItemInfluence[]{ItemInfluence.NONE, ItemInfluence.SHAPER,
+                    ItemInfluence.ELDER, ItemInfluence.CRUSADER, ItemInfluence.HUNTER}) {
+                for (int itemLevel = 75; itemLevel <= 90; itemLevel++) {
+                    Assertions.assertEquals(scanItemLevel(variants, influence, itemLevel), index.findItemLevel(influence, itemLevel));
+                }
+            }
+        }
+    }
+
+    @Test
+    void findsSameGemAsLinearScan() {
+        Random random = new Random(2);
+        for (int round = 0; round < 200; round++) {
+            List<RemoteItem> variants = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(30); i++) {
+                RemoteItem variant = new RemoteItem();
+                variant.setGemLevel(1 + random.nextInt(21));
+                variant.setGemQuality(random.nextInt(24));
+                variant.setCorrupted(random.nextBoolean());
+                variants.add(variant);
+            }
+            VariantIndex index = index(variants);
+            for (int level = 0; level <= 22; level++) {
+                for (int quality = 0; quality <= 23; quality += 3) {
+                    for (boolean corrupted : new boolean[]{false, true}) {
+                        Assertions.assertEquals(scanGem(variants, level, quality, corrupted), index.findGem(level, quality, corrupted));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void prefersExactLinksThenLastWithoutLinks() {
+        RemoteItem sixLinks = new RemoteItem();
+        sixLinks.setLinks(6);
+        VariantIndex index = index(List.of(new RemoteItem(), sixLinks, new RemoteItem()));
+
+        Assertions.assertEquals(1, index.findLinks(6));
+        Assertions.assertEquals(2, index.findLinks(5));
+    }
+
+    private static VariantIndex index(List<RemoteItem> variants) {
+        return new VariantIndex(PriceTable.of(Map.of("Variants", variants)), 0);
+    }
+
+    private static int scanItemLevel(List<RemoteItem> variants, ItemInfluence influence, int itemLevel) {
+        int chosen = -1;
+        for (int i = 0; i < variants.size(); i++) {
+            RemoteItem variant = variants.get(i);
+            String variantInfluence = variant.getInfluence() != null ? variant.getInfluence().toLowerCase() : "none";
+            if (!variantInfluence.equals(influence.name().toLowerCase())) {
+                continue;
+            }
+            if (chosen == -1 || Math.abs(variant.getItemLevel() - itemLevel) < Math.abs(variants.get(chosen).getItemLevel() - itemLevel)) {
+                chosen = i;
+            }
+        }
+        return chosen;
+    }
+
+    private static int scanGem(List<RemoteItem> variants, int level, int quality, boolean corrupted) {
+        int chosenLevel = 9999;
+        for (RemoteItem variant : variants) {
+            if (Math.abs(variant.getGemLevel() - level) < Math.abs(chosenLevel - level)) {
+                chosenLevel = variant.getGemLevel();
+            }
+        }
+        int chosenQuality = 9999;
+        for (RemoteItem variant : variants) {
+            if (variant.getGemLevel() == chosenLevel
+                    && Math.abs(variant.getGemQuality() - quality) < Math.abs(chosenQuality - quality)) {
+                chosenQuality = variant.getGemQuality();
+            }
+        }
+        int chosen = -1;
+        for (int i = 0; i < variants.size(); i++) {
+            RemoteItem variant = variants.get(i);
+            if (variant.getGemLevel() != chosenLevel || variant.getGemQuality() != chosenQuality) {
+                continue;
+            }
+            if (chosen == -1 || variant.isCorrupted() == corrupted) {
+                chosen = i;
+            }
+        }
+        return chosen;
+    }
+}